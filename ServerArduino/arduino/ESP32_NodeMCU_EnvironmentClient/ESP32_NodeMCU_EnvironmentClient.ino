@@ -3,11 +3,15 @@
  *
  * - Samples MQ135 (gas), DHT11 (temp/humidity), and HY-SRF05 (ultrasonic).
  * - Buffers readings with sequence numbers in EEPROM (ring buffer).
- * - Posts batches to /api/devices/data using DeviceDataRecord payload strings.
+ * - Posts batches to /api/devices/data using DeviceDataRecord payload strings,
+ *   or the compact binary batch format when USE_BINARY_UPLOAD is true.
  * - Uses /api/devices/login to obtain a JWT and includes it in uploads.
+ * - Backs off for the server's Retry-After when login or upload returns 429.
+ * - Applies commands returned with upload acks and acknowledges them by id on
+ *   the next request, so no separate poll is needed to receive them.
  *
  * Required libraries (Arduino IDE Library Manager):
- *   - ArduinoJson
+ *   - ArduinoJson (7.x)
  *   - DHT sensor library (by Adafruit)
  *   - MQUnifiedsensor
  */
@@ -20,6 +24,7 @@
 #include <WebServer.h>
 #include <NewPing.h>
 #include <MQUnifiedsensor.h>
+#include <ArduinoJson.h>
 
 // ---- Hardware configuration ----
 const uint8_t MQ135_PIN = 34;           // ADC pin for MQ135 sensor
@@ -62,9 +67,13 @@ const uint32_t SAMPLE_INTERVAL_MS = 600000;  // Add a reading every 10m
 const uint32_t UPLOAD_INTERVAL_MS = 3600000; // Try to upload every 1h
 const bool ONLY_UPLOAD_WHEN_REQUESTED = false; // true = honor /pending-requests flag
 const size_t BATCH_SIZE = 100000000;          // Max records per POST
+const bool USE_BINARY_UPLOAD = false;         // true = post the compact binary batch format instead of JSON
 const bool ENABLE_HTTP_DATA_ENDPOINT = true;  // expose GET /data for admin "Refresh"
 const uint16_t DATA_HTTP_PORT = 80;
+const uint32_t RETRY_AFTER_DEFAULT_S = 5;     // used when a 429 carries no Retry-After
+const uint32_t RETRY_AFTER_JITTER_MS = 2000;  // spreads a throttled fleet's retries apart
 bool isPolled = false;
+uint32_t sampleIntervalMs = SAMPLE_INTERVAL_MS; // changed at runtime by SET_SAMPLE_INTERVAL
 
 // ---- Internal state ----
 struct Reading {
@@ -79,9 +88,23 @@ const size_t MAX_RECORDS = 64;
 const size_t EEPROM_HEADER_BYTES = sizeof(uint32_t) * 2; // writeIndex + sendIndex
 const size_t EEPROM_BYTES = EEPROM_HEADER_BYTES + MAX_RECORDS * sizeof(Reading);
 
+// Binary batch: version byte, then per record a zigzag varint sequence delta,
+// a field-flags byte and one little-endian float32 per present sensor.
+const uint8_t BINARY_BATCH_VERSION = 1;
+const size_t BINARY_RECORD_MAX_BYTES = 10 + 1 + 4 * sizeof(float);
+uint8_t binaryBody[1 + MAX_RECORDS * BINARY_RECORD_MAX_BYTES];
+
 uint32_t writeIndex = 0;
 uint32_t sendIndex = 0;
 String jwtToken;
+unsigned long throttledUntilMs = 0;
+bool throttled = false;
+const char* RESPONSE_HEADERS[] = {"Retry-After"};
+
+// Ids of applied server commands, sent back as ?ackCommands= on the next request.
+const size_t MAX_COMMAND_ACKS = 8;
+uint32_t commandAcks[MAX_COMMAND_ACKS];
+size_t commandAckCount = 0;
 
 MQUnifiedsensor mq135(MQ135_BOARD, MQ135_VOLTAGE, MQ135_ADC_RESOLUTION, MQ135_PIN, "MQ-135");
 DHT dht(DHT_PIN, DHT_TYPE);
@@ -108,6 +131,21 @@ String valueOrNan(float value, uint8_t decimals) {
   return String(value, static_cast<unsigned int>(decimals));
 }
 
+bool isThrottled() {
+  if (throttled && (long)(millis() - throttledUntilMs) >= 0) {
+    throttled = false;
+  }
+  return throttled;
+}
+
+void honourRetryAfter(HTTPClient& http) {
+  long seconds = http.header("Retry-After").toInt();
+  if (seconds <= 0) seconds = RETRY_AFTER_DEFAULT_S;
+  throttledUntilMs = millis() + seconds * 1000UL + random(RETRY_AFTER_JITTER_MS);
+  throttled = true;
+  Serial.printf("Throttled, retrying in %lds\n", seconds);
+}
+
 void persistIndexes() {
   EEPROM.put(0, writeIndex);
   EEPROM.put(sizeof(uint32_t), sendIndex);
@@ -123,6 +161,66 @@ void loadIndexes() {
   }
 }
 
+String withCommandAcks(const String& url) {
+  if (commandAckCount == 0) return url;
+  String result = url + (url.indexOf('?') < 0 ? "?ackCommands=" : "&ackCommands=");
+  for (size_t i = 0; i < commandAckCount; i++) {
+    if (i > 0) result += ",";
+    result += String(commandAcks[i]);
+  }
+  return result;
+}
+
+void clearSentAcks(size_t sent) {
+  for (size_t i = sent; i < commandAckCount; i++) {
+    commandAcks[i - sent] = commandAcks[i];
+  }
+  commandAckCount -= sent;
+}
+
+void queueCommandAck(uint32_t id) {
+  for (size_t i = 0; i < commandAckCount; i++) {
+    if (commandAcks[i] == id) return;
+  }
+  if (commandAckCount < MAX_COMMAND_ACKS) {
+    commandAcks[commandAckCount++] = id;
+  }
+}
+
+void resendFrom(uint32_t from) {
+  // Only readings still in the EEPROM ring can be resent; the server skips ones it already stored.
+  uint32_t oldest = writeIndex > MAX_RECORDS ? writeIndex - MAX_RECORDS : 0;
+  uint32_t start = from < oldest ? oldest : from;
+  if (start < sendIndex) {
+    sendIndex = start;
+    persistIndexes();
+  }
+}
+
+void applyCommands(const String& body) {
+  if (body.indexOf("\"commands\"") < 0) return;
+  JsonDocument doc;
+  if (deserializeJson(doc, body)) {
+    Serial.println("Command parse failed");
+    return;
+  }
+  for (JsonObject command : doc["commands"].as<JsonArray>()) {
+    uint32_t id = command["id"] | 0;
+    const char* type = command["type"] | "";
+    if (strcmp(type, "UPLOAD_NOW") == 0) {
+      isPolled = true;
+    } else if (strcmp(type, "SET_SAMPLE_INTERVAL") == 0) {
+      uint32_t value = command["value"] | 0;
+      if (value >= 1000) sampleIntervalMs = value;
+    } else if (strcmp(type, "RESEND_RANGE") == 0) {
+      resendFrom(command["from"] | 0);
+      isPolled = true;
+    }
+    Serial.printf("Command %u: %s\n", id, type);
+    queueCommandAck(id);
+  }
+}
+
 void initializeSensors() {
   mq135.setRegressionMethod(1); // ppm = a*ratio^b
   mq135.setA(110.47);
@@ -165,6 +263,7 @@ bool ensureWifi() {
 }
 
 bool login() {
+  if (isThrottled()) return false;
   if (!ensureWifi()) return false;
 
 #if USE_TLS
@@ -176,9 +275,13 @@ bool login() {
   String json = String("{\"deviceId\":\"") + DEVICE_ID + "\",\"secret\":\"" + DEVICE_SECRET + "\"}";
 
   http.begin(netClient, url);
+  http.collectHeaders(RESPONSE_HEADERS, 1);
   http.addHeader("Content-Type", "application/json");
   int code = http.POST(json);
 
+  if (code == HTTP_CODE_TOO_MANY_REQUESTS) {
+    honourRetryAfter(http);
+  }
   if (code != HTTP_CODE_OK) {
     Serial.printf("Login failed: %d\n", code);
     http.end();
@@ -216,7 +319,8 @@ bool pollForUpload() {
   if (!ONLY_UPLOAD_WHEN_REQUESTED) return true;
   if (!ensureAuthenticated()) return false;
   HTTPClient http;
-  const String url = baseUrl() + "/api/devices/pending-requests?longPoll=true&acknowledge=true";
+  const String url = withCommandAcks(baseUrl() + "/api/devices/pending-requests?longPoll=true&acknowledge=true");
+  size_t sentAcks = commandAckCount;
   http.begin(netClient, url);
   http.addHeader("Authorization", "Bearer " + jwtToken);
   int code = http.GET();
@@ -227,6 +331,8 @@ bool pollForUpload() {
   }
   String body = http.getString();
   http.end();
+  clearSentAcks(sentAcks);
+  applyCommands(body);
 
   int flagIndex = body.indexOf("uploadRequested");
   if (flagIndex < 0) return false;
@@ -244,33 +350,81 @@ String makePayload(const Reading& r) {
   return payload;
 }
 
+size_t putVarint(uint8_t* out, uint64_t value) {
+  size_t n = 0;
+  while (value >= 0x80) {
+    out[n++] = static_cast<uint8_t>(value) | 0x80;
+    value >>= 7;
+  }
+  out[n++] = static_cast<uint8_t>(value);
+  return n;
+}
+
+size_t putFloat(uint8_t* out, float value) {
+  memcpy(out, &value, sizeof(float)); // ESP32 is little-endian
+  return sizeof(float);
+}
+
+size_t encodeBinaryRecord(uint8_t* out, const Reading& r, uint32_t previousSequence) {
+  int64_t delta = static_cast<int64_t>(r.sequence) - static_cast<int64_t>(previousSequence);
+  size_t n = putVarint(out, static_cast<uint64_t>((delta << 1) ^ (delta >> 63)));
+  uint8_t& flags = out[n++];
+  flags = 0;
+  if (!isnan(r.mq135)) { flags |= 1; n += putFloat(out + n, r.mq135); }
+  if (!isnan(r.temperatureC)) { flags |= 2; n += putFloat(out + n, r.temperatureC); }
+  if (!isnan(r.humidity)) { flags |= 4; n += putFloat(out + n, r.humidity); }
+  if (!isnan(r.distanceCm)) { flags |= 8; n += putFloat(out + n, r.distanceCm); }
+  return n;
+}
+
 bool sendBatch() {
   Serial.println("Transmition Attempt");
   if (sendIndex >= writeIndex) {
     Serial.println("No Data");
     return true;
   } // nothing to send
+  if (isThrottled()) return false;
   if (!ensureAuthenticated()) return false;
 
   HTTPClient http;
-  const String url = baseUrl() + "/api/devices/data";
+  const String url = withCommandAcks(baseUrl() + "/api/devices/data");
+  size_t sentAcks = commandAckCount;
   http.begin(netClient, url);
-  http.addHeader("Content-Type", "application/json");
+  http.collectHeaders(RESPONSE_HEADERS, 1);
   http.addHeader("Authorization", "Bearer " + jwtToken);
 
-  String body = "{\"records\":[";
-  uint32_t cursor = sendIndex;
-  size_t added = 0;
-  for (; cursor < writeIndex && added < BATCH_SIZE; cursor++) {
-    Reading r;
-    EEPROM.get(recordAddress(cursor), r);
-    if (added > 0) body += ",";
-    body += "{\"sequenceNumber\":" + String(r.sequence) + ",\"payload\":\"" + makePayload(r) + "\"}";
-    added++;
+  int code;
+  if (USE_BINARY_UPLOAD) {
+    http.addHeader("Content-Type", "application/vnd.environment-control.batch");
+    size_t length = 0;
+    binaryBody[length++] = BINARY_BATCH_VERSION;
+    uint32_t previous = 0;
+    size_t added = 0;
+    for (uint32_t cursor = sendIndex; cursor < writeIndex && added < BATCH_SIZE && added < MAX_RECORDS; cursor++, added++) {
+      Reading r;
+      EEPROM.get(recordAddress(cursor), r);
+      length += encodeBinaryRecord(binaryBody + length, r, previous);
+      previous = r.sequence;
+    }
+    code = http.POST(binaryBody, length);
+  } else {
+    http.addHeader("Content-Type", "application/json");
+    String body = "{\"records\":[";
+    uint32_t cursor = sendIndex;
+    size_t added = 0;
+    for (; cursor < writeIndex && added < BATCH_SIZE; cursor++) {
+      Reading r;
+      EEPROM.get(recordAddress(cursor), r);
+      if (added > 0) body += ",";
+      body += "{\"sequenceNumber\":" + String(r.sequence) + ",\"payload\":\"" + makePayload(r) + "\"}";
+      added++;
+    }
+    body += "]}";
+    code = http.POST(body);
+  }
+  if (code == HTTP_CODE_TOO_MANY_REQUESTS) {
+    honourRetryAfter(http);
   }
-  body += "]}";
-
-  int code = http.POST(body);
   if (code != HTTP_CODE_OK) {
     Serial.printf("Upload failed: %d\n", code);
     http.end();
@@ -279,6 +433,7 @@ bool sendBatch() {
 
   String response = http.getString();
   http.end();
+  clearSentAcks(sentAcks);
 
   int idx = response.indexOf("lastProcessedSequence");
   if (idx < 0) {
@@ -292,6 +447,7 @@ bool sendBatch() {
     sendIndex = acked + 1;
     persistIndexes();
   }
+  applyCommands(response);
   Serial.printf("Upload complete: %d\n", code);
   return true;
 }
@@ -303,6 +459,10 @@ void handleDataEndpoint() {
     return;
   }
 
+  // The server passes ?after=<lastSequenceAcknowledged> so only newer readings are returned.
+  bool hasAfter = server.hasArg("after");
+  long after = hasAfter ? server.arg("after").toInt() : -1;
+
   String body = "[";
   size_t emitted = 0;
   uint32_t start = sendIndex;
@@ -310,6 +470,7 @@ void handleDataEndpoint() {
   for (uint32_t i = start; i < end; i++) {
     Reading r;
     EEPROM.get(recordAddress(i), r);
+    if (hasAfter && (long)r.sequence <= after) continue;
     if (emitted++ > 0) body += ",";
     body += "{\"sequenceNumber\":" + String(r.sequence) + ",\"payload\":\"" + makePayload(r) + "\"}";
   }
@@ -393,7 +554,7 @@ void setup() {
 void loop() {
   const unsigned long now = millis();
 
-  if (now - lastSampleMs >= SAMPLE_INTERVAL_MS) {
+  if (now - lastSampleMs >= sampleIntervalMs) {
     sampleAndStore();
     lastSampleMs = now;
   }
@@ -403,10 +564,13 @@ void loop() {
   if(isPolled)
     Serial.println("Upload Requested");
 
-  if (sendIndex < writeIndex && (isPolled || (now - lastUploadMs >= SAMPLE_INTERVAL_MS))) {
+  if (sendIndex < writeIndex && (isPolled || (now - lastUploadMs >= sampleIntervalMs))) {
+    bool requested = isPolled;
+    isPolled = false; // commands in this ack may request another upload
     if (sendBatch()) {
       lastUploadMs = now;
-      isPolled=false;
+    } else {
+      isPolled = isPolled || requested;
     }
   }
 
@@ -0,0 +1,95 @@
+package com.environment.control.benchmarks;
+
+import com.environment.control.api.DeviceDataBatchRequest;
+import com.environment.control.api.DeviceDataRecord;
+import com.environment.control.api.DeviceDataRecordReader;
+import com.environment.control.data.BinaryBatchDecoder;
+import com.environment.control.data.DeviceData;
+import com.environment.control.data.DeviceDataFactory;
+import com.environment.control.data.SensorPayloadParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchDecodingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int records;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final DeviceDataFactory factory = new DeviceDataFactory(new SensorPayloadParser(objectMapper), true);
+    private byte[] json;
+    private byte[] ndjson;
+    private byte[] binary;
+
+    @Setup
+    public void setUp() {
+        StringBuilder array = new StringBuilder("{\"records\":[");
+        StringBuilder lines = new StringBuilder();
+        ByteBuffer buffer = ByteBuffer.allocate(1 + records * 27).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put((byte) 1);
+        for (int i = 0; i < records; i++) {
+            String record = "{\"sequenceNumber\":" + i + ",\"payload\":\"mq135=" + (400 + i % 50)
+                    + ".25,tempC=23.4,humidity=41.0,distanceCm=118.0\"}";
+            array.append(i > 0 ? "," : "").append(record);
+            lines.append(record).append('\n');
+            buffer.put((byte) (i == 0 ? 0 : 2));
+            buffer.put((byte) 0x0F);
+            buffer.putFloat(400 + i % 50 + 0.25f).putFloat(23.4f).putFloat(41.0f).putFloat(118.0f);
+        }
+        json = array.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+        ndjson = lines.toString().getBytes(StandardCharsets.UTF_8);
+        binary = new byte[buffer.position()];
+        buffer.flip().get(binary);
+    }
+
+    @Benchmark
+    public List<DeviceData> bindBatchRequest() throws IOException {
+        DeviceDataBatchRequest request = objectMapper.readValue(json, DeviceDataBatchRequest.class);
+        List<DeviceData> mapped = new ArrayList<>(request.getRecords().size());
+        for (DeviceDataRecord record : request.getRecords()) {
+            mapped.add(factory.fromRecord(record));
+        }
+        return mapped;
+    }
+
+    @Benchmark
+    public List<DeviceData> streamNdjson() throws IOException {
+        List<DeviceData> mapped = new ArrayList<>(records);
+        try (DeviceDataRecordReader reader = new DeviceDataRecordReader(objectMapper.getFactory(), new ByteArrayInputStream(ndjson))) {
+            DeviceDataRecord record;
+            while ((record = reader.next()) != null) {
+                mapped.add(factory.fromRecord(record));
+            }
+        }
+        return mapped;
+    }
+
+    @Benchmark
+    public List<DeviceData> decodeBinary() throws IOException {
+        return BinaryBatchDecoder.decode(new ByteArrayInputStream(binary));
+    }
+}
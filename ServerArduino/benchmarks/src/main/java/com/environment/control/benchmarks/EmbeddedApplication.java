@@ -0,0 +1,70 @@
+package com.environment.control.benchmarks;
+
+import com.environment.control.EnvironmentControlApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+public final class EmbeddedApplication implements Closeable {
+
+    private static final String DATASOURCE_URL = "--spring.datasource.url=";
+
+    private final EmbeddedPostgres postgres;
+    private final ConfigurableApplicationContext context;
+
+    private EmbeddedApplication(EmbeddedPostgres postgres, ConfigurableApplicationContext context) {
+        this.postgres = postgres;
+        this.context = context;
+    }
+
+    @SafeVarargs
+    public static EmbeddedApplication start(List<String> args,
+                                            ApplicationContextInitializer<ConfigurableApplicationContext>... initializers) throws IOException {
+        List<String> all = new ArrayList<>();
+        all.add("--server.port=0");
+        all.add("--management.server.port=0");
+        all.add("--app.ingest.backfill.enabled=false");
+        all.add("--app.rollups.backfill-enabled=false");
+        all.add("--logging.level.root=WARN");
+        EmbeddedPostgres postgres = null;
+        if (args.stream().noneMatch(arg -> arg.startsWith(DATASOURCE_URL))) {
+            postgres = EmbeddedPostgres.builder().start();
+            all.add(DATASOURCE_URL + postgres.getJdbcUrl("postgres", "postgres"));
+            all.add("--spring.datasource.username=postgres");
+            all.add("--spring.datasource.password=postgres");
+        }
+        all.addAll(args);
+        try {
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(EnvironmentControlApplication.class)
+                    .initializers(initializers)
+                    .run(all.toArray(String[]::new));
+            return new EmbeddedApplication(postgres, context);
+        } catch (RuntimeException e) {
+            if (postgres != null) {
+                postgres.close();
+            }
+            throw e;
+        }
+    }
+
+    public ConfigurableApplicationContext getContext() {
+        return context;
+    }
+
+    public int getPort() {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.environment.control.benchmarks;
+
+import com.environment.control.data.DataIngestionService;
+import com.environment.control.data.DeviceData;
+import com.environment.control.data.IngestResult;
+import com.environment.control.device.Device;
+import com.environment.control.device.DeviceService;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IngestBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int batchSize;
+
+    private EmbeddedApplication application;
+    private DataIngestionService dataIngestionService;
+    private Device device;
+    private long nextSequence;
+    private List<DeviceData> batch;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        application = EmbeddedApplication.start(List.of());
+        dataIngestionService = application.getContext().getBean(DataIngestionService.class);
+        device = application.getContext().getBean(DeviceService.class)
+                .register("benchmark-device", "benchmark-secret", "Benchmark", null);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        application.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void nextBatch() {
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            DeviceData data = new DeviceData();
+            data.setSequenceNumber(nextSequence++);
+            data.setMq135(400f + i % 50);
+            data.setTemperature(23.4f);
+            data.setHumidity(41f);
+            data.setDistance(118f);
+            batch.add(data);
+        }
+    }
+
+    @Benchmark
+    public IngestResult ingest() {
+        return dataIngestionService.ingest(device, batch);
+    }
+}
@@ -0,0 +1,47 @@
+package com.environment.control.benchmarks;
+
+import com.environment.control.api.DeviceDataRecord;
+import com.environment.control.data.DeviceData;
+import com.environment.control.data.DeviceDataFactory;
+import com.environment.control.data.SensorPayloadParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RecordMappingBenchmark {
+
+    @Param({"true", "false"})
+    public boolean storeRawPayload;
+
+    private DeviceDataFactory factory;
+    private DeviceDataRecord record;
+
+    @Setup
+    public void setUp() {
+        factory = new DeviceDataFactory(new SensorPayloadParser(new ObjectMapper()), storeRawPayload);
+        record = new DeviceDataRecord();
+        record.setSequenceNumber(42L);
+        record.setPayload("mq135=412.37,tempC=23.4,humidity=41.0,distanceCm=118.0");
+    }
+
+    @Benchmark
+    public DeviceData fromRecord() {
+        return factory.fromRecord(record);
+    }
+}
@@ -0,0 +1,50 @@
+package com.environment.control.benchmarks;
+
+import com.environment.control.data.DeviceData;
+import com.environment.control.data.SensorPayloadParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SensorPayloadBenchmark {
+
+    private final SensorPayloadParser parser = new SensorPayloadParser(new ObjectMapper());
+    private final String keyValue = "mq135=412.37,tempC=23.4,humidity=41.0,distanceCm=118.0";
+    private final String json = "{\"mq135\": 412.37, \"temperature\": 23.4, \"humidity\": 41, \"distance\": 118, \"ts\": 1760000000}";
+    private final String garbage = "sensor offline";
+
+    @Benchmark
+    public DeviceData parseKeyValue() {
+        DeviceData data = new DeviceData();
+        parser.parseInto(keyValue, data);
+        return data;
+    }
+
+    @Benchmark
+    public DeviceData parseJson() {
+        DeviceData data = new DeviceData();
+        parser.parseInto(json, data);
+        return data;
+    }
+
+    @Benchmark
+    public DeviceData parseUnrecognised() {
+        DeviceData data = new DeviceData();
+        parser.parseInto(garbage, data);
+        return data;
+    }
+}
@@ -0,0 +1,53 @@
+package com.environment.control.benchmarks;
+
+import com.environment.control.security.TokenService;
+import com.environment.control.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenBenchmark {
+
+    private TokenService tokenService;
+    private VerifiedTokenCache verifiedTokenCache;
+    private byte[] secretHash;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenService = new TokenService("benchmark-secret-that-is-long-enough-for-hs256-signing");
+        verifiedTokenCache = new VerifiedTokenCache(tokenService, new SimpleMeterRegistry(), 10_000, 300_000);
+        secretHash = new byte[32];
+        token = tokenService.generateToken("greenhouse-01", secretHash);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenService.generateToken("greenhouse-01", secretHash);
+    }
+
+    @Benchmark
+    public String parseDeviceId() {
+        return tokenService.parseDeviceId(token);
+    }
+
+    @Benchmark
+    public boolean resolveCached() {
+        return tokenService.isCurrent(verifiedTokenCache.resolve(token), secretHash);
+    }
+}
@@ -0,0 +1,78 @@
+package com.environment.control.benchmarks.load;
+
+import com.environment.control.benchmarks.EmbeddedApplication;
+import com.environment.control.device.Device;
+import com.environment.control.device.DeviceService;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+public final class FleetLoadHarness {
+
+    private static final String SECRET = "load-secret";
+
+    private FleetLoadHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadProfile profile = LoadProfile.parse(args);
+        QueryCounter queries = new QueryCounter();
+        try (EmbeddedApplication application = EmbeddedApplication.start(profile.getApplicationArgs(),
+                context -> context.getBeanFactory().addBeanPostProcessor(queries))) {
+            DeviceService deviceService = application.getContext().getBean(DeviceService.class);
+            List<Device> registered = new ArrayList<>(profile.getDevices());
+            for (int i = 0; i < profile.getDevices(); i++) {
+                String deviceId = String.format("load-%05d", i);
+                registered.add(deviceService.findByDeviceId(deviceId)
+                        .orElseGet(() -> deviceService.register(deviceId, SECRET, "Load " + deviceId, null)));
+            }
+            run(profile, application, deviceService, registered, queries);
+        }
+        System.exit(0);
+    }
+
+    private static void run(LoadProfile profile, EmbeddedApplication application, DeviceService deviceService,
+                            List<Device> registered, QueryCounter queries) throws InterruptedException {
+        LoadMetrics metrics = new LoadMetrics(application.getContext().getBean(MeterRegistry.class), queries);
+        ExecutorService clientPool = Executors.newFixedThreadPool(profile.getClientThreads());
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(clientPool)
+                .build();
+        URI baseUri = URI.create("http://localhost:" + application.getPort());
+        List<SimulatedDevice> devices = new ArrayList<>(registered.size());
+        for (Device device : registered) {
+            devices.add(new SimulatedDevice(device.getDeviceId(), SECRET, http, baseUri, profile, metrics));
+        }
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+        metrics.start();
+        long spacingNanos = TimeUnit.MILLISECONDS.toNanos(profile.getRampUpMs()) / Math.max(1, devices.size());
+        for (int i = 0; i < devices.size(); i++) {
+            scheduler.schedule(devices.get(i)::start, spacingNanos * i, TimeUnit.NANOSECONDS);
+        }
+        int requestsPerTick = (int) Math.ceil(registered.size() * profile.getRequestFraction());
+        scheduler.scheduleWithFixedDelay(() -> {
+            for (int i = 0; i < requestsPerTick; i++) {
+                deviceService.requestUpload(registered.get(ThreadLocalRandom.current().nextInt(registered.size())));
+            }
+        }, profile.getRampUpMs(), profile.getRequestIntervalMs(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleAtFixedRate(metrics::sample, 0, 1, TimeUnit.SECONDS);
+        scheduler.scheduleAtFixedRate(() -> metrics.progress(System.out), 10, 10, TimeUnit.SECONDS);
+
+        Thread.sleep(profile.getDurationMs());
+        devices.forEach(SimulatedDevice::stop);
+        scheduler.shutdownNow();
+        metrics.sample();
+        metrics.report(System.out, profile);
+        clientPool.shutdownNow();
+    }
+}
@@ -0,0 +1,129 @@
+package com.environment.control.benchmarks.load;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+public class LoadMetrics {
+
+    private static final List<String> SAMPLED = List.of(
+            "jvm.threads.live",
+            "tomcat.threads.busy",
+            "tomcat.threads.current",
+            "tomcat.connections.current",
+            "hikaricp.connections.active",
+            "hikaricp.connections.pending",
+            "admission.ingest.in-flight",
+            "admission.ingest.queued");
+
+    private final MeterRegistry client = new SimpleMeterRegistry();
+    private final MeterRegistry server;
+    private final QueryCounter queries;
+    private final Map<String, Double> peaks = new ConcurrentHashMap<>();
+    private long startedAt;
+    private long queriesAtStart;
+
+    public LoadMetrics(MeterRegistry server, QueryCounter queries) {
+        this.server = server;
+        this.queries = queries;
+    }
+
+    public void start() {
+        startedAt = System.nanoTime();
+        queriesAtStart = queries.count();
+    }
+
+    public void record(String operation, String outcome, long startedNanos) {
+        Timer.builder("load." + operation)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.9, 0.99, 0.999)
+                .distributionStatisticExpiry(Duration.ofDays(1))
+                .distributionStatisticBufferLength(1)
+                .register(client)
+                .record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void increment(String name, long amount) {
+        client.counter("load." + name).increment(amount);
+    }
+
+    public void sample() {
+        for (String name : SAMPLED) {
+            double value = server.find(name).gauges().stream().mapToDouble(Gauge::value).sum();
+            peaks.merge(name, value, Math::max);
+        }
+    }
+
+    public void progress(PrintStream out) {
+        double elapsed = elapsedSeconds();
+        out.printf("[%5.0fs] uploads=%d records=%d retries=%d failures=%d queries=%d%n", elapsed,
+                count("uploads"), count("records"), count("retries"), count("failures"), queries.count() - queriesAtStart);
+    }
+
+    public void report(PrintStream out, LoadProfile profile) {
+        double elapsed = elapsedSeconds();
+        long uploads = count("uploads");
+        long records = count("records");
+        long statements = queries.count() - queriesAtStart;
+        out.printf("%nFleet load: %d devices for %.1f s%n", profile.getDevices(), elapsed);
+        out.printf("  throughput  %d uploads (%.1f/s), %d records (%.1f/s)%n",
+                uploads, uploads / elapsed, records, records / elapsed);
+        out.printf("  client      %d logins, %d retries, %d throttled, %d failures, %d duplicate replays, %d commands%n",
+                count("logins"), count("retries"), count("throttled"), count("failures"), count("replays"), count("commands"));
+        out.printf("  server      %.0f records inserted, %.0f duplicates skipped%n",
+                serverCount("ingest.records", "inserted"), serverCount("ingest.records", "duplicate"));
+        out.printf("  admission   %.0f rejected (%.0f device rate, %.0f login rate, %.0f queue full, %.0f queue timeout)%n",
+                server.find("admission.rejected").counters().stream().mapToDouble(Counter::count).sum(),
+                rejected("device-rate"), rejected("login-rate"), rejected("queue-full"), rejected("queue-timeout"));
+        out.printf("  database    %d statements (%.1f/s, %.1f per upload)%n",
+                statements, statements / elapsed, uploads > 0 ? (double) statements / uploads : 0.0);
+        out.println("  latency (ms)                      count      p50      p90      p99    p99.9      max");
+        client.find("load.login").timers().forEach(timer -> printTimer(out, timer));
+        client.find("load.poll").timers().forEach(timer -> printTimer(out, timer));
+        client.find("load.upload").timers().forEach(timer -> printTimer(out, timer));
+        out.println("  peaks");
+        for (String name : SAMPLED) {
+            out.printf("    %-28s %8.0f%n", name, peaks.getOrDefault(name, Double.NaN));
+        }
+    }
+
+    private void printTimer(PrintStream out, Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        StringBuilder line = new StringBuilder(String.format("    %-28s %8d", timer.getId().getName().substring(5)
+                + " " + timer.getId().getTag("outcome"), snapshot.count()));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            line.append(String.format(" %8.1f", percentile.value(TimeUnit.MILLISECONDS)));
+        }
+        line.append(String.format(" %8.1f", snapshot.max(TimeUnit.MILLISECONDS)));
+        out.println(line);
+    }
+
+    private long count(String name) {
+        Counter counter = client.find("load." + name).counter();
+        return counter != null ? (long) counter.count() : 0;
+    }
+
+    private double serverCount(String name, String result) {
+        Counter counter = server.find(name).tag("result", result).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private double rejected(String reason) {
+        Counter counter = server.find("admission.rejected").tag("reason", reason).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private double elapsedSeconds() {
+        return (System.nanoTime() - startedAt) / 1e9;
+    }
+}
@@ -0,0 +1,117 @@
+package com.environment.control.benchmarks.load;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class LoadProfile {
+
+    private final int devices;
+    private final long durationMs;
+    private final long rampUpMs;
+    private final long sampleIntervalMs;
+    private final long uploadIntervalMs;
+    private final int maxBatch;
+    private final int maxRetries;
+    private final long retryDelayMs;
+    private final double duplicateRate;
+    private final long requestIntervalMs;
+    private final double requestFraction;
+    private final long longPollTimeoutMs;
+    private final int clientThreads;
+    private final List<String> applicationArgs;
+
+    private LoadProfile(Map<String, String> options, List<String> applicationArgs) {
+        this.devices = Integer.parseInt(options.getOrDefault("devices", "1000"));
+        this.durationMs = Long.parseLong(options.getOrDefault("duration-s", "60")) * 1000;
+        this.rampUpMs = Long.parseLong(options.getOrDefault("ramp-up-s", "10")) * 1000;
+        this.sampleIntervalMs = Long.parseLong(options.getOrDefault("sample-ms", "2000"));
+        this.uploadIntervalMs = Long.parseLong(options.getOrDefault("upload-ms", "5000"));
+        this.maxBatch = Integer.parseInt(options.getOrDefault("max-batch", "100"));
+        this.maxRetries = Integer.parseInt(options.getOrDefault("max-retries", "5"));
+        this.retryDelayMs = Long.parseLong(options.getOrDefault("retry-delay-ms", "500"));
+        this.duplicateRate = Double.parseDouble(options.getOrDefault("duplicate-rate", "0.02"));
+        this.requestIntervalMs = Long.parseLong(options.getOrDefault("request-ms", "1000"));
+        this.requestFraction = Double.parseDouble(options.getOrDefault("request-fraction", "0.01"));
+        this.longPollTimeoutMs = Long.parseLong(options.getOrDefault("long-poll-ms", "20000"));
+        this.clientThreads = Integer.parseInt(options.getOrDefault("client-threads", "4"));
+        this.applicationArgs = applicationArgs;
+    }
+
+    public static LoadProfile parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            if (name.contains(".")) {
+                applicationArgs.add(arg);
+            } else {
+                options.put(name, arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        LoadProfile profile = new LoadProfile(options, applicationArgs);
+        applicationArgs.add("--app.devices.long-poll-timeout-ms=" + profile.longPollTimeoutMs);
+        applicationArgs.add("--server.tomcat.mbeanregistry.enabled=true");
+        return profile;
+    }
+
+    public int getDevices() {
+        return devices;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public long getRampUpMs() {
+        return rampUpMs;
+    }
+
+    public long getSampleIntervalMs() {
+        return sampleIntervalMs;
+    }
+
+    public long getUploadIntervalMs() {
+        return uploadIntervalMs;
+    }
+
+    public int getMaxBatch() {
+        return maxBatch;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public long getRetryDelayMs() {
+        return retryDelayMs;
+    }
+
+    public double getDuplicateRate() {
+        return duplicateRate;
+    }
+
+    public long getRequestIntervalMs() {
+        return requestIntervalMs;
+    }
+
+    public double getRequestFraction() {
+        return requestFraction;
+    }
+
+    public long getLongPollTimeoutMs() {
+        return longPollTimeoutMs;
+    }
+
+    public int getClientThreads() {
+        return clientThreads;
+    }
+
+    public List<String> getApplicationArgs() {
+        return applicationArgs;
+    }
+}
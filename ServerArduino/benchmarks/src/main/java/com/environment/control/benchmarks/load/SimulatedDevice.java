@@ -0,0 +1,284 @@
+package com.environment.control.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+public class SimulatedDevice {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final long LOOP_DELAY_MS = 50;
+
+    private final String deviceId;
+    private final String secret;
+    private final HttpClient http;
+    private final URI baseUri;
+    private final LoadProfile profile;
+    private final LoadMetrics metrics;
+    private final Deque<Reading> buffered = new ArrayDeque<>();
+    private final List<Long> commandAcks = new ArrayList<>();
+    private volatile boolean running;
+    private String token;
+    private long nextSequence;
+    private long lastSampleAt;
+    private long lastUploadAt;
+    private long retryAfterMs;
+    private boolean uploadCommanded;
+
+    public SimulatedDevice(String deviceId, String secret, HttpClient http, URI baseUri,
+                           LoadProfile profile, LoadMetrics metrics) {
+        this.deviceId = deviceId;
+        this.secret = secret;
+        this.http = http;
+        this.baseUri = baseUri;
+        this.profile = profile;
+        this.metrics = metrics;
+    }
+
+    public void start() {
+        running = true;
+        lastSampleAt = System.currentTimeMillis();
+        lastUploadAt = lastSampleAt;
+        loop();
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    private void loop() {
+        if (!running) {
+            return;
+        }
+        sample();
+        if (token == null) {
+            login().whenComplete((ok, error) -> after(Boolean.TRUE.equals(ok) ? 0 : retryDelay(profile.getRetryDelayMs()), this::loop));
+            return;
+        }
+        poll().thenCompose(requested -> {
+                    long now = System.currentTimeMillis();
+                    if (!buffered.isEmpty() && (requested || uploadCommanded || now - lastUploadAt >= profile.getUploadIntervalMs())) {
+                        uploadCommanded = false;
+                        return upload(0);
+                    }
+                    return CompletableFuture.completedFuture(true);
+                })
+                .whenComplete((ok, error) -> after(Boolean.TRUE.equals(ok) ? LOOP_DELAY_MS : profile.getRetryDelayMs(), this::loop));
+    }
+
+    private void sample() {
+        long now = System.currentTimeMillis();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (now - lastSampleAt >= profile.getSampleIntervalMs()) {
+            lastSampleAt += profile.getSampleIntervalMs();
+            String payload = String.format(Locale.ROOT, "mq135=%.2f,tempC=%.1f,humidity=%.1f,distanceCm=%.1f",
+                    380 + random.nextDouble(80), 19 + random.nextDouble(7), 35 + random.nextDouble(20), 80 + random.nextDouble(60));
+            buffered.add(new Reading(nextSequence++, payload));
+        }
+    }
+
+    private CompletableFuture<Boolean> login() {
+        long started = System.nanoTime();
+        String body = "{\"deviceId\":\"" + deviceId + "\",\"secret\":\"" + secret + "\"}";
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/api/devices/login"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofString()).handle((response, error) -> {
+            if (error == null && response.statusCode() == 429) {
+                throttled(response);
+            }
+            if (error != null || response.statusCode() != 200) {
+                metrics.record("login", outcome(response, error), started);
+                metrics.increment("failures", 1);
+                return false;
+            }
+            metrics.record("login", "ok", started);
+            metrics.increment("logins", 1);
+            token = read(response.body()).path("token").asText(null);
+            return token != null;
+        });
+    }
+
+    private CompletableFuture<Boolean> poll() {
+        long started = System.nanoTime();
+        int sentAcks = commandAcks.size();
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(withCommandAcks("/api/devices/pending-requests?longPoll=true&acknowledge=true")))
+                .timeout(Duration.ofMillis(profile.getLongPollTimeoutMs() + 10000))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofString()).handle((response, error) -> {
+            if (error == null && response.statusCode() == 401) {
+                token = null;
+            }
+            if (error != null || response.statusCode() != 200) {
+                metrics.record("poll", outcome(response, error), started);
+                metrics.increment("failures", 1);
+                throw new IllegalStateException("Long poll failed", error);
+            }
+            JsonNode pending = read(response.body());
+            boolean requested = applyCommands(pending, sentAcks) || pending.path("uploadRequested").asBoolean();
+            metrics.record("poll", requested ? "requested" : "timeout", started);
+            return requested;
+        });
+    }
+
+    private CompletableFuture<Boolean> upload(int attempt) {
+        if (!running) {
+            return CompletableFuture.completedFuture(false);
+        }
+        StringBuilder body = new StringBuilder("{\"records\":[");
+        Iterator<Reading> readings = buffered.iterator();
+        int count = 0;
+        while (readings.hasNext() && count < profile.getMaxBatch()) {
+            Reading reading = readings.next();
+            if (count++ > 0) {
+                body.append(',');
+            }
+            body.append("{\"sequenceNumber\":").append(reading.sequence)
+                    .append(",\"payload\":\"").append(reading.payload).append("\"}");
+        }
+        body.append("]}");
+        int records = count;
+        int sentAcks = commandAcks.size();
+        return post(body.toString()).thenCompose(response -> {
+            if (response == null || response.statusCode() != 200) {
+                if (response != null && response.statusCode() == 401) {
+                    token = null;
+                }
+                if (response != null && response.statusCode() == 429) {
+                    throttled(response);
+                }
+                return retry(attempt);
+            }
+            JsonNode ack = read(response.body());
+            acknowledge(ack.path("lastProcessedSequence").asLong(-1));
+            uploadCommanded |= applyCommands(ack, sentAcks);
+            lastUploadAt = System.currentTimeMillis();
+            metrics.increment("uploads", 1);
+            metrics.increment("records", records);
+            if (ThreadLocalRandom.current().nextDouble() < profile.getDuplicateRate()) {
+                metrics.increment("replays", 1);
+                return post(body.toString()).thenApply(replayed -> true);
+            }
+            return CompletableFuture.completedFuture(true);
+        });
+    }
+
+    private CompletableFuture<HttpResponse<String>> post(String body) {
+        long started = System.nanoTime();
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(withCommandAcks("/api/devices/data")))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofString()).handle((response, error) -> {
+            metrics.record("upload", outcome(response, error), started);
+            return error != null ? null : response;
+        });
+    }
+
+    private CompletableFuture<Boolean> retry(int attempt) {
+        if (attempt >= profile.getMaxRetries()) {
+            metrics.increment("failures", 1);
+            return CompletableFuture.completedFuture(false);
+        }
+        metrics.increment("retries", 1);
+        long delay = retryDelay(profile.getRetryDelayMs() << Math.min(attempt, 6));
+        CompletableFuture<Boolean> next = new CompletableFuture<>();
+        after(delay, () -> (token == null ? login() : CompletableFuture.completedFuture(true))
+                .thenCompose(ok -> upload(attempt + 1))
+                .whenComplete((ok, error) -> {
+                    if (error != null) {
+                        next.completeExceptionally(error);
+                    } else {
+                        next.complete(ok);
+                    }
+                }));
+        return next;
+    }
+
+    private void throttled(HttpResponse<String> response) {
+        metrics.increment("throttled", 1);
+        long seconds = response.headers().firstValueAsLong("Retry-After").orElse(1);
+        retryAfterMs = TimeUnit.SECONDS.toMillis(seconds) + ThreadLocalRandom.current().nextLong(1000);
+    }
+
+    private long retryDelay(long backoffMs) {
+        long delay = Math.max(backoffMs, retryAfterMs);
+        retryAfterMs = 0;
+        return delay;
+    }
+
+    private String withCommandAcks(String path) {
+        if (commandAcks.isEmpty()) {
+            return path;
+        }
+        return path + (path.indexOf('?') < 0 ? "?" : "&") + "ackCommands="
+                + commandAcks.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    private boolean applyCommands(JsonNode response, int sentAcks) {
+        commandAcks.subList(0, Math.min(sentAcks, commandAcks.size())).clear();
+        boolean upload = false;
+        for (JsonNode command : response.path("commands")) {
+            String type = command.path("type").asText();
+            upload |= "UPLOAD_NOW".equals(type) || "RESEND_RANGE".equals(type);
+            commandAcks.add(command.path("id").asLong());
+            metrics.increment("commands", 1);
+        }
+        return upload;
+    }
+
+    private void acknowledge(long lastProcessed) {
+        while (!buffered.isEmpty() && buffered.peekFirst().sequence <= lastProcessed) {
+            buffered.removeFirst();
+        }
+    }
+
+    private static void after(long delayMs, Runnable action) {
+        CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS).execute(action);
+    }
+
+    private static String outcome(HttpResponse<String> response, Throwable error) {
+        if (error != null) {
+            return "error";
+        }
+        return response.statusCode() == 200 ? "ok" : Integer.toString(response.statusCode());
+    }
+
+    private static JsonNode read(String body) {
+        try {
+            return MAPPER.readTree(body);
+        } catch (Exception e) {
+            return MAPPER.missingNode();
+        }
+    }
+
+    private static final class Reading {
+        private final long sequence;
+        private final String payload;
+
+        private Reading(long sequence, String payload) {
+            this.sequence = sequence;
+            this.payload = payload;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.environment.control.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class DeviceAdmission {
+
+    private static final Permit NO_OP = () -> { };
+
+    private final boolean enabled;
+    private final double dataRate;
+    private final int dataBurst;
+    private final double loginRate;
+    private final int loginBurst;
+    private final int maxInFlight;
+    private final int maxQueued;
+    private final long queueTimeoutMs;
+    private final long retryAfterSeconds;
+    private final long maxRetryAfterSeconds;
+    private final Cache<String, TokenBucket> dataBuckets;
+    private final Cache<String, TokenBucket> loginBuckets;
+    private final Semaphore inFlight;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Counter rateLimited;
+    private final Counter loginRateLimited;
+    private final Counter queueFull;
+    private final Counter queueTimeout;
+    private final Timer queueWait;
+
+    public DeviceAdmission(MeterRegistry meterRegistry,
+                           @Value("${app.admission.enabled:true}") boolean enabled,
+                           @Value("${app.admission.data.rate-per-second:2}") double dataRate,
+                           @Value("${app.admission.data.burst:10}") int dataBurst,
+                           @Value("${app.admission.login.rate-per-second:0.1}") double loginRate,
+                           @Value("${app.admission.login.burst:3}") int loginBurst,
+                           @Value("${app.admission.max-in-flight:8}") int maxInFlight,
+                           @Value("${app.admission.max-queued:64}") int maxQueued,
+                           @Value("${app.admission.queue-timeout-ms:2000}") long queueTimeoutMs,
+                           @Value("${app.admission.retry-after-seconds:5}") long retryAfterSeconds,
+                           @Value("${app.admission.max-retry-after-seconds:60}") long maxRetryAfterSeconds,
+                           @Value("${app.admission.max-devices:100000}") long maxDevices,
+                           @Value("${app.admission.idle-ms:600000}") long idleMs) {
+        if (dataRate <= 0 || loginRate <= 0) {
+            throw new IllegalArgumentException("app.admission.data.rate-per-second and app.admission.login.rate-per-second must be positive");
+        }
+        this.enabled = enabled;
+        this.dataRate = dataRate;
+        this.dataBurst = dataBurst;
+        this.loginRate = loginRate;
+        this.loginBurst = loginBurst;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.maxQueued = Math.max(0, maxQueued);
+        this.queueTimeoutMs = Math.max(0, queueTimeoutMs);
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+        this.maxRetryAfterSeconds = Math.max(this.retryAfterSeconds, maxRetryAfterSeconds);
+        this.dataBuckets = Caffeine.newBuilder()
+                .maximumSize(maxDevices)
+                .expireAfterAccess(Duration.ofMillis(idleMs))
+                .build();
+        this.loginBuckets = Caffeine.newBuilder()
+                .maximumSize(maxDevices)
+                .expireAfterAccess(Duration.ofMillis(idleMs))
+                .build();
+        this.inFlight = new Semaphore(this.maxInFlight, true);
+        Gauge.builder("admission.ingest.in-flight", inFlight, semaphore -> this.maxInFlight - semaphore.availablePermits())
+                .description("Ingest batches currently holding a database or journal slot")
+                .register(meterRegistry);
+        Gauge.builder("admission.ingest.queued", queued, AtomicInteger::get)
+                .description("Ingest batches waiting for a slot")
+                .register(meterRegistry);
+        this.rateLimited = rejections(meterRegistry, "device-rate");
+        this.loginRateLimited = rejections(meterRegistry, "login-rate");
+        this.queueFull = rejections(meterRegistry, "queue-full");
+        this.queueTimeout = rejections(meterRegistry, "queue-timeout");
+        this.queueWait = Timer.builder("admission.ingest.queue.wait")
+                .description("Time an admitted ingest batch waited for a slot")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public void admitLogin(String deviceId, String remoteAddress) {
+        if (!enabled || deviceId == null) {
+            return;
+        }
+        long waitNanos = loginBuckets.get(deviceId + "@" + remoteAddress, id -> new TokenBucket(loginRate, loginBurst, System.nanoTime()))
+                .tryAcquire(System.nanoTime());
+        if (waitNanos > 0) {
+            loginRateLimited.increment();
+            throw new AdmissionRejectedException("Too many login attempts", toRetryAfter(waitNanos));
+        }
+    }
+
+    public void admitUpload(String deviceId) {
+        if (!enabled) {
+            return;
+        }
+        long waitNanos = dataBuckets.get(deviceId, id -> new TokenBucket(dataRate, dataBurst, System.nanoTime()))
+                .tryAcquire(System.nanoTime());
+        if (waitNanos > 0) {
+            rateLimited.increment();
+            throw new AdmissionRejectedException("Device upload rate exceeded", toRetryAfter(waitNanos));
+        }
+    }
+
+    public Permit acquireIngestSlot() {
+        if (!enabled) {
+            return NO_OP;
+        }
+        if (inFlight.tryAcquire()) {
+            queueWait.record(0, TimeUnit.NANOSECONDS);
+            return inFlight::release;
+        }
+        int depth = queued.incrementAndGet();
+        try {
+            if (depth > maxQueued) {
+                queueFull.increment();
+                throw new AdmissionRejectedException("Ingest queue full", shedRetryAfter(depth));
+            }
+            long started = System.nanoTime();
+            boolean acquired;
+            try {
+                acquired = inFlight.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+            if (!acquired) {
+                queueTimeout.increment();
+                throw new AdmissionRejectedException("Ingest queue timed out", shedRetryAfter(depth));
+            }
+            queueWait.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return inFlight::release;
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    private long shedRetryAfter(int depth) {
+        return Math.min(maxRetryAfterSeconds, retryAfterSeconds * (1 + depth / maxInFlight));
+    }
+
+    private long toRetryAfter(long waitNanos) {
+        return Math.min(maxRetryAfterSeconds, Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L));
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("admission.rejected").tag("reason", reason)
+                .description("Device requests answered with 429 by admission control")
+                .register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
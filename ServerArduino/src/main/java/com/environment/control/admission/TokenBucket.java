@@ -0,0 +1,33 @@
+package com.environment.control.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong nextFree;
+
+    TokenBucket(double permitsPerSecond, int burst, long nowNanos) {
+        if (!(permitsPerSecond > 0)) {
+            throw new IllegalArgumentException("Token bucket rate must be positive: " + permitsPerSecond);
+        }
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.burstNanos = intervalNanos * (Math.max(1, burst) - 1);
+        this.nextFree = new AtomicLong(nowNanos);
+    }
+
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = nextFree.get();
+            long start = current - nowNanos > 0 ? current : nowNanos;
+            long waitNanos = start - burstNanos - nowNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (nextFree.compareAndSet(current, start + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -1,13 +1,27 @@
 package com.environment.control.api;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+
 public class DeviceDataAck {
     private long lastProcessedSequence;
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<PendingCommand> commands;
 
     public DeviceDataAck(long lastProcessedSequence) {
+        this(lastProcessedSequence, List.of());
+    }
+
+    public DeviceDataAck(long lastProcessedSequence, List<PendingCommand> commands) {
         this.lastProcessedSequence = lastProcessedSequence;
+        this.commands = commands;
     }
 
     public long getLastProcessedSequence() {
         return lastProcessedSequence;
     }
+
+    public List<PendingCommand> getCommands() {
+        return commands;
+    }
 }
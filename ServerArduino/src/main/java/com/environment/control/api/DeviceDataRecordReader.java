@@ -0,0 +1,62 @@
+package com.environment.control.api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+public class DeviceDataRecordReader implements Closeable {
+
+    private final JsonParser parser;
+    private boolean started;
+    private boolean array;
+
+    public DeviceDataRecordReader(JsonFactory jsonFactory, InputStream in) throws IOException {
+        this.parser = jsonFactory.createParser(in);
+    }
+
+    public DeviceDataRecord next() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (!started) {
+            started = true;
+            if (token == JsonToken.START_ARRAY) {
+                array = true;
+                token = parser.nextToken();
+            }
+        }
+        if (token == null || (array && token == JsonToken.END_ARRAY)) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a record object but found " + token);
+        }
+        DeviceDataRecord record = new DeviceDataRecord();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("sequenceNumber".equals(field)) {
+                record.setSequenceNumber(value == JsonToken.VALUE_NULL ? null : sequenceNumber(value));
+            } else if ("payload".equals(field)) {
+                record.setPayload(value == JsonToken.VALUE_NULL ? null : parser.getValueAsString());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return record;
+    }
+
+    private long sequenceNumber(JsonToken value) throws IOException {
+        if (value != JsonToken.VALUE_NUMBER_INT) {
+            throw new JsonParseException(parser, "Expected an integer sequenceNumber but found " + value);
+        }
+        return parser.getLongValue();
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
@@ -0,0 +1,40 @@
+package com.environment.control.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PendingCommand {
+    private long id;
+    private String type;
+    private Long value;
+    private Long from;
+    private Long to;
+
+    public PendingCommand(long id, String type, Long value, Long from, Long to) {
+        this.id = id;
+        this.type = type;
+        this.value = value;
+        this.from = from;
+        this.to = to;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Long getValue() {
+        return value;
+    }
+
+    public Long getFrom() {
+        return from;
+    }
+
+    public Long getTo() {
+        return to;
+    }
+}
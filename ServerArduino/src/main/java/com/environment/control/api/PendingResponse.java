@@ -1,12 +1,18 @@
 package com.environment.control.api;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+
 public class PendingResponse {
     private boolean uploadRequested;
     private Long lastSequenceAcknowledged;
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<PendingCommand> commands;
 
-    public PendingResponse(boolean uploadRequested, Long lastSequenceAcknowledged) {
+    public PendingResponse(boolean uploadRequested, Long lastSequenceAcknowledged, List<PendingCommand> commands) {
         this.uploadRequested = uploadRequested;
         this.lastSequenceAcknowledged = lastSequenceAcknowledged;
+        this.commands = commands;
     }
 
     public boolean isUploadRequested() {
@@ -16,4 +22,8 @@ public class PendingResponse {
     public Long getLastSequenceAcknowledged() {
         return lastSequenceAcknowledged;
     }
+
+    public List<PendingCommand> getCommands() {
+        return commands;
+    }
 }
@@ -0,0 +1,20 @@
+package com.environment.control.chart;
+
+public class ChartSeries {
+
+    private final long[] timestamps;
+    private final float[] values;
+
+    public ChartSeries(long[] timestamps, float[] values) {
+        this.timestamps = timestamps;
+        this.values = values;
+    }
+
+    public long[] getTimestamps() {
+        return timestamps;
+    }
+
+    public float[] getValues() {
+        return values;
+    }
+}
@@ -0,0 +1,109 @@
+package com.environment.control.chart;
+
+import com.environment.control.device.Device;
+import com.environment.control.hot.HotTier;
+import com.environment.control.rollup.RollupResolution;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ChartService {
+
+    private final ReadingScanner readingScanner;
+    private final HotTier hotTier;
+    private final int minWidth;
+    private final int maxWidth;
+    private final boolean useRollups;
+    private final Map<String, Timer> renderTimers = new HashMap<>();
+
+    public ChartService(ReadingScanner readingScanner,
+                        HotTier hotTier,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.charts.min-width:16}") int minWidth,
+                        @Value("${app.charts.max-width:4000}") int maxWidth,
+                        @Value("${app.charts.use-rollups:true}") boolean useRollups) {
+        this.readingScanner = readingScanner;
+        this.hotTier = hotTier;
+        this.minWidth = minWidth;
+        this.maxWidth = maxWidth;
+        this.useRollups = useRollups;
+        registerRenderTimer(meterRegistry, "HOT");
+        registerRenderTimer(meterRegistry, "RAW");
+        for (RollupResolution resolution : RollupResolution.values()) {
+            registerRenderTimer(meterRegistry, resolution.name());
+        }
+    }
+
+    private void registerRenderTimer(MeterRegistry meterRegistry, String source) {
+        renderTimers.put(source, Timer.builder("chart.render.duration")
+                .description("Time to build one chart response")
+                .tag("source", source)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    public ChartView build(Device device, Instant from, Instant to, int width, DownsampleMode mode) {
+        long started = System.nanoTime();
+        ChartView view = render(device, from, to, width, mode);
+        renderTimers.get(view.getResolution()).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return view;
+    }
+
+    private ChartView render(Device device, Instant from, Instant to, int width, DownsampleMode mode) {
+        Instant end = to != null ? to : Instant.now().plusSeconds(1);
+        Instant start = from != null
+                ? from
+                : readingScanner.firstReading(device.getId()).orElse(end.minus(Duration.ofDays(1)));
+        if (!start.isBefore(end)) {
+            start = end.minusMillis(1);
+        }
+        int points = Math.max(minWidth, Math.min(width, maxWidth));
+        long fromMillis = start.toEpochMilli();
+        long toMillis = end.toEpochMilli();
+        Downsampler mq135 = Downsampler.create(mode, fromMillis, toMillis, points);
+        Downsampler temperature = Downsampler.create(mode, fromMillis, toMillis, points);
+        Downsampler humidity = Downsampler.create(mode, fromMillis, toMillis, points);
+        Downsampler distance = Downsampler.create(mode, fromMillis, toMillis, points);
+        long[] rows = new long[1];
+        ReadingHandler handler = (timestamp, mq135Value, humidityValue, temperatureValue, distanceValue) -> {
+            rows[0]++;
+            if (!Float.isNaN(mq135Value)) {
+                mq135.add(timestamp, mq135Value);
+            }
+            if (!Float.isNaN(humidityValue)) {
+                humidity.add(timestamp, humidityValue);
+            }
+            if (!Float.isNaN(temperatureValue)) {
+                temperature.add(timestamp, temperatureValue);
+            }
+            if (!Float.isNaN(distanceValue)) {
+                distance.add(timestamp, distanceValue);
+            }
+        };
+        if (hotTier.scan(device.getId(), fromMillis, toMillis, handler)) {
+            return new ChartView(start, end, mode, "HOT", rows[0],
+                    mq135.finish(), humidity.finish(), temperature.finish(), distance.finish());
+        }
+        RollupResolution resolution = useRollups
+                ? RollupResolution.coarsestWithin(Duration.ofMillis((toMillis - fromMillis) / points))
+                : null;
+        long scanned;
+        if (resolution != null) {
+            Downsampler[] series = {mq135, temperature, humidity, distance};
+            scanned = readingScanner.scanRollups(device.getId(), resolution, start, end,
+                    (bucketStart, sensor, min, max, mean) -> series[sensor].addAggregate(bucketStart, min, max, mean));
+        } else {
+            readingScanner.scan(device.getId(), start, end, handler);
+            scanned = rows[0];
+        }
+        return new ChartView(start, end, mode, resolution != null ? resolution.name() : "RAW", scanned,
+                mq135.finish(), humidity.finish(), temperature.finish(), distance.finish());
+    }
+}
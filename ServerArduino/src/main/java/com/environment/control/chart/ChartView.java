@@ -0,0 +1,65 @@
+package com.environment.control.chart;
+
+import java.time.Instant;
+
+public class ChartView {
+
+    private final Instant from;
+    private final Instant to;
+    private final DownsampleMode mode;
+    private final String resolution;
+    private final long scanned;
+    private final ChartSeries mq135;
+    private final ChartSeries humidity;
+    private final ChartSeries temperature;
+    private final ChartSeries distance;
+
+    public ChartView(Instant from, Instant to, DownsampleMode mode, String resolution, long scanned,
+                     ChartSeries mq135, ChartSeries humidity, ChartSeries temperature, ChartSeries distance) {
+        this.from = from;
+        this.to = to;
+        this.mode = mode;
+        this.resolution = resolution;
+        this.scanned = scanned;
+        this.mq135 = mq135;
+        this.humidity = humidity;
+        this.temperature = temperature;
+        this.distance = distance;
+    }
+
+    public Instant getFrom() {
+        return from;
+    }
+
+    public Instant getTo() {
+        return to;
+    }
+
+    public DownsampleMode getMode() {
+        return mode;
+    }
+
+    public String getResolution() {
+        return resolution;
+    }
+
+    public long getScanned() {
+        return scanned;
+    }
+
+    public ChartSeries getMq135() {
+        return mq135;
+    }
+
+    public ChartSeries getHumidity() {
+        return humidity;
+    }
+
+    public ChartSeries getTemperature() {
+        return temperature;
+    }
+
+    public ChartSeries getDistance() {
+        return distance;
+    }
+}
@@ -0,0 +1,6 @@
+package com.environment.control.chart;
+
+public enum DownsampleMode {
+    LTTB,
+    MINMAX
+}
@@ -0,0 +1,34 @@
+package com.environment.control.chart;
+
+abstract class Downsampler {
+
+    protected final long from;
+    protected final double bucketMillis;
+    protected final int buckets;
+    protected final SeriesBuilder output;
+
+    protected Downsampler(long from, long to, int buckets, int outputCapacity) {
+        this.from = from;
+        this.buckets = buckets;
+        this.bucketMillis = Math.max(1.0, (double) (to - from) / buckets);
+        this.output = new SeriesBuilder(outputCapacity);
+    }
+
+    static Downsampler create(DownsampleMode mode, long from, long to, int width) {
+        return mode == DownsampleMode.MINMAX
+                ? new MinMaxDownsampler(from, to, Math.max(1, width / 2))
+                : new LttbDownsampler(from, to, Math.max(1, width));
+    }
+
+    protected int bucketOf(long timestamp) {
+        return (int) Math.min(buckets - 1, Math.max(0, (long) ((timestamp - from) / bucketMillis)));
+    }
+
+    abstract void add(long timestamp, float value);
+
+    void addAggregate(long timestamp, float min, float max, float mean) {
+        add(timestamp, mean);
+    }
+
+    abstract ChartSeries finish();
+}
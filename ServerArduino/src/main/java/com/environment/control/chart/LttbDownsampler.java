@@ -0,0 +1,84 @@
+package com.environment.control.chart;
+
+class LttbDownsampler extends Downsampler {
+
+    private SeriesBuilder current = new SeriesBuilder(64);
+    private SeriesBuilder next = new SeriesBuilder(64);
+    private int currentBucket;
+    private int nextBucket;
+    private boolean hasAnchor;
+    private long anchorTimestamp;
+    private float anchorValue;
+
+    LttbDownsampler(long from, long to, int buckets) {
+        super(from, to, buckets, buckets + 2);
+    }
+
+    @Override
+    void add(long timestamp, float value) {
+        if (!hasAnchor) {
+            emit(timestamp, value);
+            return;
+        }
+        int bucket = bucketOf(timestamp);
+        if (current.size() == 0 || bucket == currentBucket) {
+            currentBucket = bucket;
+            current.add(timestamp, value);
+            return;
+        }
+        if (next.size() == 0 || bucket == nextBucket) {
+            nextBucket = bucket;
+            next.add(timestamp, value);
+            return;
+        }
+        selectFromCurrent();
+        SeriesBuilder drained = current;
+        current = next;
+        currentBucket = nextBucket;
+        next = drained;
+        next.clear();
+        nextBucket = bucket;
+        next.add(timestamp, value);
+    }
+
+    @Override
+    ChartSeries finish() {
+        if (next.size() > 0) {
+            selectFromCurrent();
+            emit(next.timestampAt(next.size() - 1), next.valueAt(next.size() - 1));
+        } else if (current.size() > 0) {
+            emit(current.timestampAt(current.size() - 1), current.valueAt(current.size() - 1));
+        }
+        return output.build();
+    }
+
+    private void selectFromCurrent() {
+        double averageTime = 0;
+        double averageValue = 0;
+        for (int i = 0; i < next.size(); i++) {
+            averageTime += next.timestampAt(i) - from;
+            averageValue += next.valueAt(i);
+        }
+        averageTime /= next.size();
+        averageValue /= next.size();
+        double anchorTime = anchorTimestamp - from;
+        int selected = 0;
+        double maxArea = -1;
+        for (int i = 0; i < current.size(); i++) {
+            double area = Math.abs((anchorTime - averageTime) * (current.valueAt(i) - anchorValue)
+                    - (anchorTime - (current.timestampAt(i) - from)) * (averageValue - anchorValue));
+            if (area > maxArea) {
+                maxArea = area;
+                selected = i;
+            }
+        }
+        emit(current.timestampAt(selected), current.valueAt(selected));
+    }
+
+    private void emit(long timestamp, float value) {
+        output.add(timestamp, value);
+        hasAnchor = true;
+        anchorTimestamp = timestamp;
+        anchorValue = value;
+    }
+}
@@ -0,0 +1,63 @@
+package com.environment.control.chart;
+
+class MinMaxDownsampler extends Downsampler {
+
+    private int bucket = -1;
+    private long minTimestamp;
+    private float minValue;
+    private long maxTimestamp;
+    private float maxValue;
+
+    MinMaxDownsampler(long from, long to, int buckets) {
+        super(from, to, buckets, buckets * 2);
+    }
+
+    @Override
+    void add(long timestamp, float value) {
+        int target = bucketOf(timestamp);
+        if (target != bucket) {
+            flush();
+            bucket = target;
+            minTimestamp = timestamp;
+            minValue = value;
+            maxTimestamp = timestamp;
+            maxValue = value;
+            return;
+        }
+        if (value < minValue) {
+            minTimestamp = timestamp;
+            minValue = value;
+        }
+        if (value > maxValue) {
+            maxTimestamp = timestamp;
+            maxValue = value;
+        }
+    }
+
+    @Override
+    void addAggregate(long timestamp, float min, float max, float mean) {
+        add(timestamp, min);
+        add(timestamp, max);
+    }
+
+    @Override
+    ChartSeries finish() {
+        flush();
+        return output.build();
+    }
+
+    private void flush() {
+        if (bucket < 0) {
+            return;
+        }
+        if (minTimestamp == maxTimestamp && minValue == maxValue) {
+            output.add(minTimestamp, minValue);
+        } else if (minTimestamp <= maxTimestamp) {
+            output.add(minTimestamp, minValue);
+            output.add(maxTimestamp, maxValue);
+        } else {
+            output.add(maxTimestamp, maxValue);
+            output.add(minTimestamp, minValue);
+        }
+    }
+}
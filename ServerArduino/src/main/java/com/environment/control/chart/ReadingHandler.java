@@ -0,0 +1,6 @@
+package com.environment.control.chart;
+
+@FunctionalInterface
+public interface ReadingHandler {
+    void accept(long timestampMillis, float mq135, float humidity, float temperature, float distance);
+}
@@ -0,0 +1,126 @@
+package com.environment.control.chart;
+
+import com.environment.control.cold.ColdBlock;
+import com.environment.control.cold.ColdCursor;
+import com.environment.control.cold.ColdStore;
+import com.environment.control.rollup.RollupResolution;
+import com.environment.control.rollup.RollupSql;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public class ReadingScanner {
+
+    private static final String SCAN_RANGE = """
+            SELECT (extract(epoch FROM created_at) * 1000)::bigint, mq135, humidity, temperature, distance, sequence_number
+            FROM device_data
+            WHERE device_id = ? AND created_at >= to_timestamp(? / 1000.0) AND created_at < to_timestamp(? / 1000.0)
+            ORDER BY created_at, sequence_number
+            """;
+
+    private static final String FIRST_READING = """
+            SELECT (extract(epoch FROM created_at) * 1000)::bigint
+            FROM device_data
+            WHERE device_id = ?
+            ORDER BY created_at
+            LIMIT 1
+            """;
+
+    private static final String SCAN_ROLLUPS = """
+            SELECT (extract(epoch FROM bucket_start) * 1000)::bigint, %s
+            FROM device_data_rollup
+            WHERE device_id = ? AND resolution = ?
+              AND bucket_start > to_timestamp(? / 1000.0) AND bucket_start < to_timestamp(? / 1000.0)
+            ORDER BY bucket_start
+            """.formatted(RollupSql.SENSORS.stream()
+                    .map(s -> s + "_count, " + s + "_min, " + s + "_max, " + s + "_sum")
+                    .collect(Collectors.joining(", ")));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ColdStore coldStore;
+    private final int fetchSize;
+
+    public ReadingScanner(JdbcTemplate jdbcTemplate, ColdStore coldStore, @Value("${app.charts.fetch-size:5000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.coldStore = coldStore;
+        this.fetchSize = fetchSize;
+    }
+
+    @Transactional(readOnly = true)
+    public void scan(long devicePk, Instant from, Instant to, ReadingHandler handler) {
+        ColdCursor cold = coldStore.scan(devicePk, from, to);
+        jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement(SCAN_RANGE);
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, devicePk);
+            statement.setLong(2, from.toEpochMilli());
+            statement.setLong(3, to.toEpochMilli());
+            return statement;
+        }, (ResultSet rs) -> {
+            long timestamp = rs.getLong(1);
+            long sequence = rs.getLong(6);
+            while (cold.isBefore(timestamp, sequence)) {
+                emit(cold, handler);
+            }
+            handler.accept(timestamp, readFloat(rs, 2), readFloat(rs, 3), readFloat(rs, 4), readFloat(rs, 5));
+        });
+        while (cold.hasRow()) {
+            emit(cold, handler);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long scanRollups(long devicePk, RollupResolution resolution, Instant from, Instant to, RollupHandler handler) {
+        long[] rows = new long[1];
+        jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement(SCAN_ROLLUPS);
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, devicePk);
+            statement.setString(2, resolution.name());
+            statement.setLong(3, from.toEpochMilli() - resolution.getDuration().toMillis());
+            statement.setLong(4, to.toEpochMilli());
+            return statement;
+        }, (ResultSet rs) -> {
+            rows[0]++;
+            long bucketStart = rs.getLong(1);
+            for (int sensor = 0; sensor < RollupSql.SENSORS.size(); sensor++) {
+                int column = 2 + sensor * 4;
+                long count = rs.getLong(column);
+                if (count > 0) {
+                    handler.accept(bucketStart, sensor, rs.getFloat(column + 1), rs.getFloat(column + 2),
+                            (float) (rs.getDouble(column + 3) / count));
+                }
+            }
+        });
+        return rows[0];
+    }
+
+    public Optional<Instant> firstReading(long devicePk) {
+        Optional<Instant> hot = jdbcTemplate.query(FIRST_READING, rs -> rs.next() ? Optional.of(Instant.ofEpochMilli(rs.getLong(1))) : Optional.empty(), devicePk);
+        Optional<Instant> cold = coldStore.firstReading(devicePk);
+        if (hot.isEmpty() || cold.isEmpty()) {
+            return hot.isPresent() ? hot : cold;
+        }
+        return hot.get().isBefore(cold.get()) ? hot : cold;
+    }
+
+    private static void emit(ColdCursor cold, ReadingHandler handler) {
+        ColdBlock block = cold.block();
+        int row = cold.row();
+        handler.accept(block.createdAt(row), block.mq135(row), block.humidity(row), block.temperature(row), block.distance(row));
+        cold.next();
+    }
+
+    private static float readFloat(ResultSet rs, int column) throws SQLException {
+        float value = rs.getFloat(column);
+        return rs.wasNull() ? Float.NaN : value;
+    }
+}
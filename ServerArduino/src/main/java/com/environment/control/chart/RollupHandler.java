@@ -0,0 +1,6 @@
+package com.environment.control.chart;
+
+@FunctionalInterface
+public interface RollupHandler {
+    void accept(long bucketStartMillis, int sensor, float min, float max, float mean);
+}
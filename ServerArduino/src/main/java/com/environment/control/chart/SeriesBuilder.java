@@ -0,0 +1,45 @@
+package com.environment.control.chart;
+
+import java.util.Arrays;
+
+class SeriesBuilder {
+
+    private long[] timestamps;
+    private float[] values;
+    private int size;
+
+    SeriesBuilder(int capacity) {
+        this.timestamps = new long[Math.max(capacity, 4)];
+        this.values = new float[timestamps.length];
+    }
+
+    void add(long timestamp, float value) {
+        if (size == timestamps.length) {
+            timestamps = Arrays.copyOf(timestamps, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        timestamps[size] = timestamp;
+        values[size] = value;
+        size++;
+    }
+
+    long timestampAt(int index) {
+        return timestamps[index];
+    }
+
+    float valueAt(int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    ChartSeries build() {
+        return new ChartSeries(Arrays.copyOf(timestamps, size), Arrays.copyOf(values, size));
+    }
+}
@@ -0,0 +1,413 @@
+package com.environment.control.cluster;
+
+import com.environment.control.data.DeviceData;
+import com.environment.control.data.DeviceDataRepository;
+import com.environment.control.device.CommandQueuedEvent;
+import com.environment.control.device.Device;
+import com.environment.control.device.DeviceCache;
+import com.environment.control.device.DeviceChangedEvent;
+import com.environment.control.device.DeviceInvalidatedEvent;
+import com.environment.control.device.PendingRequestWaiters;
+import com.environment.control.device.UploadRequestedEvent;
+import com.environment.control.hot.HotTier;
+import com.environment.control.live.LiveFeed;
+import com.environment.control.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+public class ClusterEventBus {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterEventBus.class);
+
+    private static final String NOTIFY = "SELECT pg_notify(?, ?)";
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+    private static final String UPLOAD_REQUESTED = "upload";
+    private static final String COMMAND_QUEUED = "command";
+    private static final String INVALIDATED = "invalidate";
+    private static final String CHANGED = "changed";
+    private static final String NEW_DATA = "data";
+    private static final String RESYNC = "resync";
+    private static final int FIELDS = 9;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final DeviceCache deviceCache;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final PendingRequestWaiters pendingRequestWaiters;
+    private final HotTier hotTier;
+    private final LiveFeed liveFeed;
+    private final DeviceDataRepository deviceDataRepository;
+    private final boolean enabled;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final int waitMs;
+    private final long validateIntervalMs;
+    private final long reconnectInitialMs;
+    private final long reconnectMaxMs;
+    private final int maxReplayRows;
+    private final ThreadPoolExecutor sender;
+    private final ThreadPoolExecutor replayer;
+    private final ThreadPoolExecutor waker;
+    private final AtomicBoolean connected = new AtomicBoolean();
+    private long outboundSequence;
+    private final AtomicBoolean lostSends = new AtomicBoolean();
+    private final Map<String, Long> peerSequences = new HashMap<>();
+    private final ConcurrentMap<String, Counter> eventCounters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final Counter dropped;
+    private final Counter gaps;
+    private final Counter reconnects;
+    private final Timer lag;
+    private volatile boolean running;
+    private Thread listener;
+
+    public ClusterEventBus(JdbcTemplate jdbcTemplate,
+                           DataSourceProperties dataSourceProperties,
+                           DeviceCache deviceCache,
+                           VerifiedTokenCache verifiedTokenCache,
+                           PendingRequestWaiters pendingRequestWaiters,
+                           HotTier hotTier,
+                           LiveFeed liveFeed,
+                           DeviceDataRepository deviceDataRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.cluster.enabled:false}") boolean enabled,
+                           @Value("${app.cluster.channel:environment_control}") String channel,
+                           @Value("${app.cluster.wait-ms:1000}") int waitMs,
+                           @Value("${app.cluster.validate-interval-ms:30000}") long validateIntervalMs,
+                           @Value("${app.cluster.reconnect-initial-ms:500}") long reconnectInitialMs,
+                           @Value("${app.cluster.reconnect-max-ms:30000}") long reconnectMaxMs,
+                           @Value("${app.cluster.send-queue-size:10000}") int sendQueueSize,
+                           @Value("${app.cluster.replay-queue-size:1000}") int replayQueueSize,
+                           @Value("${app.cluster.max-replay-rows:500}") int maxReplayRows) {
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("app.cluster.channel must be a lower-case SQL identifier: " + channel);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.deviceCache = deviceCache;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.pendingRequestWaiters = pendingRequestWaiters;
+        this.hotTier = hotTier;
+        this.liveFeed = liveFeed;
+        this.deviceDataRepository = deviceDataRepository;
+        this.enabled = enabled;
+        this.channel = channel;
+        this.waitMs = Math.max(1, waitMs);
+        this.validateIntervalMs = validateIntervalMs;
+        this.reconnectInitialMs = Math.max(1, reconnectInitialMs);
+        this.reconnectMaxMs = Math.max(this.reconnectInitialMs, reconnectMaxMs);
+        this.maxReplayRows = Math.max(1, maxReplayRows);
+        this.meterRegistry = meterRegistry;
+        this.dropped = Counter.builder("cluster.events.dropped")
+                .description("Cluster events discarded because a local send or replay queue was full")
+                .register(meterRegistry);
+        this.sender = singleThread("cluster-notify", sendQueueSize);
+        this.replayer = singleThread("cluster-replay", replayQueueSize);
+        this.waker = singleThread("cluster-wake", replayQueueSize);
+        this.gaps = Counter.builder("cluster.events.gaps")
+                .description("Times a peer's event sequence skipped ahead, forcing this node to drop its caches")
+                .register(meterRegistry);
+        this.reconnects = Counter.builder("cluster.listener.reconnects")
+                .description("Times the LISTEN connection was re-established after a failure")
+                .register(meterRegistry);
+        this.lag = Timer.builder("cluster.events.lag")
+                .description("Time from a peer sending a cluster event to this node receiving it")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("cluster.listener.connected", connected, flag -> flag.get() ? 1 : 0)
+                .description("Whether this node currently holds its LISTEN connection")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listenLoop, "cluster-listener");
+        listener.setDaemon(true);
+        listener.start();
+        log.info("Cluster event bus listening on channel {} as node {}", channel, nodeId);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        sender.shutdown();
+        replayer.shutdownNow();
+        waker.shutdownNow();
+        if (listener != null) {
+            listener.join(waitMs * 2L);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUploadRequested(UploadRequestedEvent event) {
+        send(UPLOAD_REQUESTED, event.getDeviceId(), 0, 0, 0, 0);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommandQueued(CommandQueuedEvent event) {
+        send(COMMAND_QUEUED, event.getDeviceId(), 0, 0, 0, 0);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceInvalidated(DeviceInvalidatedEvent event) {
+        send(INVALIDATED, event.getDeviceId(), 0, 0, 0, 0);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        send(CHANGED, event.getDeviceId(), 0, 0, 0, 0);
+    }
+
+    public void publishData(Device device, List<DeviceData> stored) {
+        if (!enabled || stored.isEmpty()) {
+            return;
+        }
+        long from = Long.MAX_VALUE;
+        long to = Long.MIN_VALUE;
+        for (DeviceData data : stored) {
+            from = Math.min(from, data.getSequenceNumber());
+            to = Math.max(to, data.getSequenceNumber());
+        }
+        send(NEW_DATA, device.getDeviceId(), device.getId(), from, to, stored.size());
+    }
+
+    private void send(String type, String deviceId, long devicePk, long from, long to, int count) {
+        if (!enabled) {
+            return;
+        }
+        long sentAt = System.currentTimeMillis();
+        try {
+            sender.execute(() -> {
+                String payload = String.join("|", nodeId, Long.toString(++outboundSequence), type,
+                        Long.toString(sentAt), Long.toString(devicePk), Long.toString(from), Long.toString(to),
+                        Integer.toString(count), deviceId);
+                try {
+                    jdbcTemplate.queryForList(NOTIFY, channel, payload);
+                    counter("sent", type).increment();
+                } catch (DataAccessException e) {
+                    lost();
+                    log.warn("Could not send cluster event {} for device {}: {}", type, deviceId, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            lost();
+        }
+    }
+
+    private void lost() {
+        dropped.increment();
+        lostSends.set(true);
+    }
+
+    private void listenLoop() {
+        long backoffMs = reconnectInitialMs;
+        boolean firstConnect = true;
+        while (running) {
+            try (Connection connection = openListenConnection()) {
+                PGConnection notifications = connection.unwrap(PGConnection.class);
+                connected.set(true);
+                if (!firstConnect) {
+                    reconnects.increment();
+                    peerSequences.clear();
+                    resync();
+                    log.info("Cluster event bus reconnected to channel {}", channel);
+                }
+                firstConnect = false;
+                backoffMs = reconnectInitialMs;
+                long validatedAt = System.currentTimeMillis();
+                while (running) {
+                    PGNotification[] received = notifications.getNotifications(waitMs);
+                    if (received != null) {
+                        for (PGNotification notification : received) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                    if (lostSends.compareAndSet(true, false)) {
+                        send(RESYNC, "", 0, 0, 0, 0);
+                    }
+                    if (System.currentTimeMillis() - validatedAt >= validateIntervalMs) {
+                        if (!connection.isValid((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(validateIntervalMs)))) {
+                            throw new SQLException("LISTEN connection no longer valid");
+                        }
+                        validatedAt = System.currentTimeMillis();
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                connected.set(false);
+                if (!running) {
+                    return;
+                }
+                log.warn("Cluster event bus connection failed, retrying in {} ms: {}", backoffMs, e.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMs = Math.min(backoffMs * 2, reconnectMaxMs);
+            }
+        }
+        connected.set(false);
+    }
+
+    private Connection openListenConnection() throws SQLException {
+        Properties properties = new Properties();
+        if (dataSourceProperties.determineUsername() != null) {
+            properties.setProperty("user", dataSourceProperties.determineUsername());
+        }
+        if (dataSourceProperties.determinePassword() != null) {
+            properties.setProperty("password", dataSourceProperties.determinePassword());
+        }
+        properties.setProperty("ApplicationName", "environment-control-cluster-" + nodeId);
+        properties.setProperty("tcpKeepAlive", "true");
+        Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(), properties);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + channel);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    private void receive(String payload) {
+        String[] fields = payload.split("\\|", FIELDS);
+        if (fields.length != FIELDS || fields[0].equals(nodeId)) {
+            return;
+        }
+        String type = fields[2];
+        String deviceId = fields[8];
+        try {
+            Long previous = peerSequences.put(fields[0], Long.parseLong(fields[1]));
+            if (RESYNC.equals(type) || (previous != null && Long.parseLong(fields[1]) != previous + 1)) {
+                gaps.increment();
+                resync();
+            }
+            lag.record(Math.max(0, System.currentTimeMillis() - Long.parseLong(fields[3])), TimeUnit.MILLISECONDS);
+            switch (type) {
+                case UPLOAD_REQUESTED, COMMAND_QUEUED -> {
+                    deviceCache.evict(deviceId);
+                    wake(deviceId);
+                }
+                case CHANGED -> deviceCache.evict(deviceId);
+                case INVALIDATED -> {
+                    deviceCache.evict(deviceId);
+                    verifiedTokenCache.evict(deviceId);
+                }
+                case NEW_DATA -> onPeerData(deviceId, Long.parseLong(fields[4]), Long.parseLong(fields[5]),
+                        Long.parseLong(fields[6]), Integer.parseInt(fields[7]));
+                case RESYNC -> {
+                }
+                default -> {
+                    return;
+                }
+            }
+            counter("received", type).increment();
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed cluster event: {}", payload);
+        }
+    }
+
+    private void wake(String deviceId) {
+        try {
+            waker.execute(() -> pendingRequestWaiters.requested(deviceId));
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+        }
+    }
+
+    private void onPeerData(String deviceId, long devicePk, long from, long to, int count) {
+        if (!hotTier.holds(devicePk) && !liveFeed.hasSubscribers()) {
+            return;
+        }
+        if (count > maxReplayRows) {
+            hotTier.evict(devicePk);
+            return;
+        }
+        try {
+            replayer.execute(() -> replayPeerData(deviceId, devicePk, from, to, count));
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+            hotTier.evict(devicePk);
+        }
+    }
+
+    private void replayPeerData(String deviceId, long devicePk, long from, long to, int count) {
+        try {
+            Optional<Device> device = deviceCache.find(deviceId).filter(found -> found.getId() == devicePk);
+            if (device.isEmpty()) {
+                return;
+            }
+            List<DeviceData> rows = deviceDataRepository.findByDeviceAndSequenceNumberGreaterThanOrderBySequenceNumberAsc(
+                    device.get(), from - 1, Limit.of(count)).stream()
+                    .filter(data -> data.getSequenceNumber() <= to)
+                    .toList();
+            hotTier.append(device.get(), rows);
+            liveFeed.publish(device.get(), rows);
+        } catch (DataAccessException e) {
+            hotTier.evict(devicePk);
+            log.warn("Could not load peer readings for device {}: {}", deviceId, e.getMessage());
+        }
+    }
+
+    private void resync() {
+        deviceCache.evictAll();
+        verifiedTokenCache.evictAll();
+        hotTier.evictAll();
+    }
+
+    private Counter counter(String direction, String type) {
+        return eventCounters.computeIfAbsent(direction + ":" + type, key -> Counter.builder("cluster.events")
+                .tag("direction", direction).tag("type", type)
+                .description("Cluster events sent to or received from peer nodes")
+                .register(meterRegistry));
+    }
+
+    private static ThreadPoolExecutor singleThread(String name, int queueSize) {
+        return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, name);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+}
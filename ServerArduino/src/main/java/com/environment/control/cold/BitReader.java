@@ -0,0 +1,29 @@
+package com.environment.control.cold;
+
+final class BitReader {
+
+    private final byte[] bytes;
+    private long position;
+
+    BitReader(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    boolean readBit() {
+        int index = (int) (position >>> 3);
+        if (index >= bytes.length) {
+            throw new IllegalArgumentException("Truncated block at bit " + position);
+        }
+        boolean bit = (bytes[index] & (0x80 >>> (position & 7))) != 0;
+        position++;
+        return bit;
+    }
+
+    long readBits(int count) {
+        long value = 0;
+        for (int i = 0; i < count; i++) {
+            value = (value << 1) | (readBit() ? 1 : 0);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,34 @@
+package com.environment.control.cold;
+
+import java.util.Arrays;
+
+final class BitWriter {
+
+    private byte[] bytes;
+    private long bitLength;
+
+    BitWriter(int expectedBytes) {
+        this.bytes = new byte[Math.max(16, expectedBytes)];
+    }
+
+    void writeBit(boolean bit) {
+        writeBits(bit ? 1 : 0, 1);
+    }
+
+    void writeBits(long value, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            int index = (int) (bitLength >>> 3);
+            if (index == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            if (((value >>> i) & 1) != 0) {
+                bytes[index] |= (byte) (0x80 >>> (bitLength & 7));
+            }
+            bitLength++;
+        }
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, (int) ((bitLength + 7) >>> 3));
+    }
+}
@@ -0,0 +1,204 @@
+package com.environment.control.cold;
+
+final class BlockCodec {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private BlockCodec() {
+    }
+
+    static byte[] encode(ColdBlock block) {
+        int rows = block.size();
+        BitWriter out = new BitWriter(16 + rows * 6);
+        out.writeBits(FORMAT_VERSION, 8);
+        out.writeBits(rows, 32);
+        if (rows == 0) {
+            return out.toByteArray();
+        }
+        writeTimestamps(out, block.createdAt, rows);
+        writeSequences(out, block.sequences, rows);
+        writeOptionalTimestamps(out, block.recordedAt, rows);
+        writeFloats(out, block.mq135, rows);
+        writeFloats(out, block.temperature, rows);
+        writeFloats(out, block.humidity, rows);
+        writeFloats(out, block.distance, rows);
+        return out.toByteArray();
+    }
+
+    static ColdBlock decode(byte[] data) {
+        BitReader in = new BitReader(data);
+        int version = (int) in.readBits(8);
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported block format " + version);
+        }
+        int rows = (int) in.readBits(32);
+        ColdBlock block = new ColdBlock(rows);
+        if (rows == 0) {
+            return block;
+        }
+        readTimestamps(in, block.createdAt, rows);
+        readSequences(in, block.sequences, rows);
+        readOptionalTimestamps(in, block.recordedAt, rows);
+        readFloats(in, block.mq135, rows);
+        readFloats(in, block.temperature, rows);
+        readFloats(in, block.humidity, rows);
+        readFloats(in, block.distance, rows);
+        return block;
+    }
+
+    private static void writeTimestamps(BitWriter out, long[] values, int rows) {
+        out.writeBits(values[0], 64);
+        long previous = values[0];
+        long previousDelta = 0;
+        for (int i = 1; i < rows; i++) {
+            long delta = values[i] - previous;
+            writeSigned(out, delta - previousDelta);
+            previousDelta = delta;
+            previous = values[i];
+        }
+    }
+
+    private static void readTimestamps(BitReader in, long[] values, int rows) {
+        values[0] = in.readBits(64);
+        long delta = 0;
+        for (int i = 1; i < rows; i++) {
+            delta += readSigned(in);
+            values[i] = values[i - 1] + delta;
+        }
+    }
+
+    private static void writeSequences(BitWriter out, long[] values, int rows) {
+        out.writeBits(values[0], 64);
+        for (int i = 1; i < rows; i++) {
+            writeSigned(out, values[i] - values[i - 1] - 1);
+        }
+    }
+
+    private static void readSequences(BitReader in, long[] values, int rows) {
+        values[0] = in.readBits(64);
+        for (int i = 1; i < rows; i++) {
+            values[i] = values[i - 1] + 1 + readSigned(in);
+        }
+    }
+
+    private static void writeOptionalTimestamps(BitWriter out, long[] values, int rows) {
+        long previous = 0;
+        long previousDelta = 0;
+        for (int i = 0; i < rows; i++) {
+            if (values[i] == ColdBlock.NO_TIME) {
+                out.writeBit(false);
+                continue;
+            }
+            out.writeBit(true);
+            long delta = values[i] - previous;
+            writeSigned(out, delta - previousDelta);
+            previousDelta = delta;
+            previous = values[i];
+        }
+    }
+
+    private static void readOptionalTimestamps(BitReader in, long[] values, int rows) {
+        long previous = 0;
+        long delta = 0;
+        for (int i = 0; i < rows; i++) {
+            if (!in.readBit()) {
+                values[i] = ColdBlock.NO_TIME;
+                continue;
+            }
+            delta += readSigned(in);
+            previous += delta;
+            values[i] = previous;
+        }
+    }
+
+    private static void writeSigned(BitWriter out, long value) {
+        if (value == 0) {
+            out.writeBit(false);
+        } else if (fits(value, 7)) {
+            out.writeBits(0b10, 2);
+            out.writeBits(value, 7);
+        } else if (fits(value, 12)) {
+            out.writeBits(0b110, 3);
+            out.writeBits(value, 12);
+        } else if (fits(value, 20)) {
+            out.writeBits(0b1110, 4);
+            out.writeBits(value, 20);
+        } else {
+            out.writeBits(0b1111, 4);
+            out.writeBits(value, 64);
+        }
+    }
+
+    private static long readSigned(BitReader in) {
+        if (!in.readBit()) {
+            return 0;
+        }
+        if (!in.readBit()) {
+            return signExtend(in.readBits(7), 7);
+        }
+        if (!in.readBit()) {
+            return signExtend(in.readBits(12), 12);
+        }
+        if (!in.readBit()) {
+            return signExtend(in.readBits(20), 20);
+        }
+        return in.readBits(64);
+    }
+
+    private static void writeFloats(BitWriter out, float[] values, int rows) {
+        int previous = Float.floatToIntBits(values[0]);
+        out.writeBits(previous, 32);
+        int leading = -1;
+        int trailing = 0;
+        for (int i = 1; i < rows; i++) {
+            int bits = Float.floatToIntBits(values[i]);
+            int xor = bits ^ previous;
+            previous = bits;
+            if (xor == 0) {
+                out.writeBit(false);
+                continue;
+            }
+            out.writeBit(true);
+            int leadingZeros = Integer.numberOfLeadingZeros(xor);
+            int trailingZeros = Integer.numberOfTrailingZeros(xor);
+            if (leading >= 0 && leadingZeros >= leading && trailingZeros >= trailing) {
+                out.writeBit(false);
+                out.writeBits(xor >>> trailing, 32 - leading - trailing);
+            } else {
+                int significant = 32 - leadingZeros - trailingZeros;
+                out.writeBit(true);
+                out.writeBits(leadingZeros, 5);
+                out.writeBits(significant - 1, 5);
+                out.writeBits(xor >>> trailingZeros, significant);
+                leading = leadingZeros;
+                trailing = trailingZeros;
+            }
+        }
+    }
+
+    private static void readFloats(BitReader in, float[] values, int rows) {
+        int previous = (int) in.readBits(32);
+        values[0] = Float.intBitsToFloat(previous);
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 1; i < rows; i++) {
+            if (in.readBit()) {
+                if (in.readBit()) {
+                    leading = (int) in.readBits(5);
+                    int significant = (int) in.readBits(5) + 1;
+                    trailing = 32 - leading - significant;
+                }
+                previous ^= (int) (in.readBits(32 - leading - trailing) << trailing);
+            }
+            values[i] = Float.intBitsToFloat(previous);
+        }
+    }
+
+    private static boolean fits(long value, int bits) {
+        return value >= -(1L << (bits - 1)) && value < (1L << (bits - 1));
+    }
+
+    private static long signExtend(long value, int bits) {
+        return (value << (64 - bits)) >> (64 - bits);
+    }
+}
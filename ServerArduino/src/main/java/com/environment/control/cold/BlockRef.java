@@ -0,0 +1,18 @@
+package com.environment.control.cold;
+
+final class BlockRef {
+
+    final long id;
+    final long minTime;
+    final long maxTime;
+    final long minSequence;
+    final long maxSequence;
+
+    BlockRef(long id, long minTime, long maxTime, long minSequence, long maxSequence) {
+        this.id = id;
+        this.minTime = minTime;
+        this.maxTime = maxTime;
+        this.minSequence = minSequence;
+        this.maxSequence = maxSequence;
+    }
+}
@@ -0,0 +1,69 @@
+package com.environment.control.cold;
+
+public final class ColdBlock {
+
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    private final int size;
+    final long[] sequences;
+    final long[] createdAt;
+    final long[] recordedAt;
+    final float[] mq135;
+    final float[] temperature;
+    final float[] humidity;
+    final float[] distance;
+
+    ColdBlock(int size) {
+        this.size = size;
+        this.sequences = new long[size];
+        this.createdAt = new long[size];
+        this.recordedAt = new long[size];
+        this.mq135 = new float[size];
+        this.temperature = new float[size];
+        this.humidity = new float[size];
+        this.distance = new float[size];
+    }
+
+    void set(int row, long sequence, long createdAtMillis, long recordedAtMillis,
+             float mq135, float temperature, float humidity, float distance) {
+        this.sequences[row] = sequence;
+        this.createdAt[row] = createdAtMillis;
+        this.recordedAt[row] = recordedAtMillis;
+        this.mq135[row] = mq135;
+        this.temperature[row] = temperature;
+        this.humidity[row] = humidity;
+        this.distance[row] = distance;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long sequence(int row) {
+        return sequences[row];
+    }
+
+    public long createdAt(int row) {
+        return createdAt[row];
+    }
+
+    public long recordedAt(int row) {
+        return recordedAt[row];
+    }
+
+    public float mq135(int row) {
+        return mq135[row];
+    }
+
+    public float temperature(int row) {
+        return temperature[row];
+    }
+
+    public float humidity(int row) {
+        return humidity[row];
+    }
+
+    public float distance(int row) {
+        return distance[row];
+    }
+}
@@ -0,0 +1,69 @@
+package com.environment.control.cold;
+
+import java.util.Iterator;
+import java.util.List;
+
+public final class ColdCursor {
+
+    private final ColdStore coldStore;
+    private final Iterator<BlockRef> blocks;
+    private final long fromMillis;
+    private final long toMillis;
+    private ColdBlock block;
+    private int row;
+
+    ColdCursor(ColdStore coldStore, List<BlockRef> blocks, long fromMillis, long toMillis) {
+        this.coldStore = coldStore;
+        this.blocks = blocks.iterator();
+        this.fromMillis = fromMillis;
+        this.toMillis = toMillis;
+        seek();
+    }
+
+    public boolean hasRow() {
+        return block != null;
+    }
+
+    public boolean isBefore(long createdAtMillis, long sequence) {
+        if (block == null) {
+            return false;
+        }
+        long time = block.createdAt(row);
+        return time < createdAtMillis || (time == createdAtMillis && block.sequence(row) < sequence);
+    }
+
+    public ColdBlock block() {
+        return block;
+    }
+
+    public int row() {
+        return row;
+    }
+
+    public void next() {
+        row++;
+        seek();
+    }
+
+    private void seek() {
+        while (true) {
+            while (block != null && row < block.size()) {
+                long time = block.createdAt(row);
+                if (time >= toMillis) {
+                    block = null;
+                    return;
+                }
+                if (time >= fromMillis) {
+                    return;
+                }
+                row++;
+            }
+            if (!blocks.hasNext()) {
+                block = null;
+                return;
+            }
+            block = coldStore.load(blocks.next().id);
+            row = 0;
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.environment.control.cold;
+
+import com.environment.control.data.DeviceData;
+import com.environment.control.data.DeviceWriteLock;
+import com.environment.control.device.Device;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.SqlArrayValue;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public class ColdStore {
+
+    static final String SEALABLE = "(payload IS NULL OR mq135 IS NOT NULL OR temperature IS NOT NULL OR humidity IS NOT NULL OR distance IS NOT NULL)";
+
+    private static final String BLOCK_COLUMNS = """
+            SELECT id, (extract(epoch FROM min_time) * 1000)::bigint, (extract(epoch FROM max_time) * 1000)::bigint,
+                   min_sequence, max_sequence
+            FROM device_data_block
+            """;
+
+    private static final String BLOCKS_IN_RANGE = BLOCK_COLUMNS + """
+            WHERE device_id = ? AND max_time >= to_timestamp(? / 1000.0) AND min_time < to_timestamp(? / 1000.0)
+            ORDER BY min_time
+            """;
+
+    private static final String BLOCKS_AFTER_SEQUENCE = BLOCK_COLUMNS + """
+            WHERE device_id = ? AND max_sequence > ?
+            ORDER BY min_sequence
+            """;
+
+    private static final String LOAD_BLOCK = "SELECT data FROM device_data_block WHERE id = ?";
+
+    private static final String FIRST_READING = """
+            SELECT (extract(epoch FROM min(min_time)) * 1000)::bigint FROM device_data_block WHERE device_id = ?
+            """;
+
+    private static final String SEALED_THROUGH = """
+            SELECT (extract(epoch FROM max(max_time)) * 1000)::bigint FROM device_data_block WHERE device_id = ?
+            """;
+
+    private static final String OLDEST_SEALABLE = """
+            SELECT (extract(epoch FROM min(created_at)) * 1000)::bigint
+            FROM device_data
+            WHERE device_id = ? AND created_at < to_timestamp(? / 1000.0) AND %s
+            """.formatted(SEALABLE);
+
+    private static final String WINDOW_ROWS = """
+            SELECT sequence_number, (extract(epoch FROM created_at) * 1000)::bigint, (extract(epoch FROM recorded_at) * 1000)::bigint,
+                   mq135, temperature, humidity, distance
+            FROM device_data
+            WHERE device_id = ? AND created_at >= to_timestamp(? / 1000.0) AND created_at < to_timestamp(? / 1000.0) AND %s
+            ORDER BY created_at, sequence_number
+            """.formatted(SEALABLE);
+
+    private static final String WINDOW_BLOCK = """
+            SELECT data FROM device_data_block WHERE device_id = ? AND window_start = to_timestamp(? / 1000.0) FOR UPDATE
+            """;
+
+    private static final String UPSERT_BLOCK = """
+            INSERT INTO device_data_block (device_id, window_start, min_time, max_time, min_sequence, max_sequence, row_count, sequences, data)
+            VALUES (?, to_timestamp(? / 1000.0), to_timestamp(? / 1000.0), to_timestamp(? / 1000.0), ?, ?, ?, ?, ?)
+            ON CONFLICT (device_id, window_start) DO UPDATE
+            SET min_time = EXCLUDED.min_time, max_time = EXCLUDED.max_time,
+                min_sequence = EXCLUDED.min_sequence, max_sequence = EXCLUDED.max_sequence,
+                row_count = EXCLUDED.row_count, sequences = EXCLUDED.sequences, data = EXCLUDED.data
+            """;
+
+    private static final String UNINDEXED_BLOCKS = """
+            SELECT id, data FROM device_data_block
+            WHERE sequences IS NULL AND row_count <> max_sequence - min_sequence + 1
+            LIMIT ?
+            """;
+
+    private static final String SET_SEQUENCES = "UPDATE device_data_block SET sequences = ? WHERE id = ?";
+
+    private static final String DELETE_WINDOW_ROWS = """
+            DELETE FROM device_data
+            WHERE device_id = ? AND created_at >= to_timestamp(? / 1000.0) AND created_at < to_timestamp(? / 1000.0) AND %s
+            """.formatted(SEALABLE);
+
+    private static final String ADJUST_STORED_ROWS = "UPDATE devices SET stored_rows = stored_rows + ? WHERE id = ?";
+
+    private static final String DELETE_EXPIRED = """
+            WITH expired AS (
+                DELETE FROM device_data_block WHERE max_time < to_timestamp(? / 1000.0)
+                RETURNING device_id, row_count
+            ), counted AS (
+                UPDATE devices d SET stored_rows = d.stored_rows - e.rows
+                FROM (SELECT device_id, sum(row_count) AS rows FROM expired GROUP BY device_id) e
+                WHERE d.id = e.device_id
+            )
+            SELECT count(*) FROM expired
+            """;
+
+    private static final RowMapper<BlockRef> BLOCK_REF = (rs, rowNum) ->
+            new BlockRef(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5));
+
+    private static final Comparator<Row> TIME_ORDER = Comparator.<Row>comparingLong(row -> row.createdAt)
+            .thenComparingLong(row -> row.sequence);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DeviceWriteLock deviceWriteLock;
+    private final boolean enabled;
+
+    public ColdStore(JdbcTemplate jdbcTemplate, DeviceWriteLock deviceWriteLock, @Value("${app.cold.enabled:false}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.deviceWriteLock = deviceWriteLock;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public ColdCursor scan(long devicePk, Instant from, Instant to) {
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        if (!enabled) {
+            return new ColdCursor(this, List.of(), fromMillis, toMillis);
+        }
+        return new ColdCursor(this, jdbcTemplate.query(BLOCKS_IN_RANGE, BLOCK_REF, devicePk, fromMillis, toMillis), fromMillis, toMillis);
+    }
+
+    public List<DeviceData> pageByTime(Device device, Instant from, Instant to, Instant afterTime, long afterSequence, int count) {
+        ColdCursor cursor = scan(device.getId(), afterTime.isAfter(from) ? afterTime : from, to);
+        long afterMillis = afterTime.toEpochMilli();
+        List<DeviceData> rows = new ArrayList<>(count);
+        while (cursor.hasRow() && rows.size() < count) {
+            ColdBlock block = cursor.block();
+            int row = cursor.row();
+            long time = block.createdAt(row);
+            if (time > afterMillis || (time == afterMillis && block.sequence(row) > afterSequence)) {
+                rows.add(toDeviceData(device, block, row));
+            }
+            cursor.next();
+        }
+        return rows;
+    }
+
+    public List<DeviceData> pageBySequence(Device device, long afterSequence, int count) {
+        if (!enabled) {
+            return List.of();
+        }
+        List<DeviceData> rows = new ArrayList<>();
+        Comparator<DeviceData> bySequence = Comparator.comparing(DeviceData::getSequenceNumber);
+        for (BlockRef ref : jdbcTemplate.query(BLOCKS_AFTER_SEQUENCE, BLOCK_REF, device.getId(), afterSequence)) {
+            if (rows.size() >= count) {
+                rows.sort(bySequence);
+                rows.subList(count, rows.size()).clear();
+                if (rows.get(count - 1).getSequenceNumber() < ref.minSequence) {
+                    break;
+                }
+            }
+            ColdBlock block = load(ref.id);
+            for (int row = 0; row < block.size(); row++) {
+                if (block.sequence(row) > afterSequence) {
+                    rows.add(toDeviceData(device, block, row));
+                }
+            }
+        }
+        rows.sort(bySequence);
+        return rows.size() > count ? new ArrayList<>(rows.subList(0, count)) : rows;
+    }
+
+    public Optional<Instant> firstReading(long devicePk) {
+        return queryInstant(FIRST_READING, devicePk);
+    }
+
+    public Optional<Instant> sealedThrough(long devicePk) {
+        return queryInstant(SEALED_THROUGH, devicePk);
+    }
+
+    ColdBlock load(long blockId) {
+        return BlockCodec.decode(jdbcTemplate.queryForObject(LOAD_BLOCK, byte[].class, blockId));
+    }
+
+    Optional<Long> oldestSealable(long devicePk, long cutoffMillis) {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(OLDEST_SEALABLE, Long.class, devicePk, cutoffMillis));
+    }
+
+    @Transactional
+    public SealResult sealWindow(long devicePk, long windowStart, long windowEnd) {
+        deviceWriteLock.lock(devicePk);
+        List<Row> rows = jdbcTemplate.query(WINDOW_ROWS, (ResultSet rs, int rowNum) -> {
+            long recordedAt = rs.getLong(3);
+            if (rs.wasNull()) {
+                recordedAt = ColdBlock.NO_TIME;
+            }
+            return new Row(rs.getLong(1), rs.getLong(2), recordedAt,
+                    readFloat(rs, 4), readFloat(rs, 5), readFloat(rs, 6), readFloat(rs, 7));
+        }, devicePk, windowStart, windowEnd);
+        if (rows.isEmpty()) {
+            return new SealResult(0, 0);
+        }
+        int sealed = rows.size();
+        int previousSize = 0;
+        List<byte[]> existing = jdbcTemplate.queryForList(WINDOW_BLOCK, byte[].class, devicePk, windowStart);
+        if (!existing.isEmpty()) {
+            ColdBlock previous = BlockCodec.decode(existing.get(0));
+            previousSize = previous.size();
+            for (int i = 0; i < previous.size(); i++) {
+                rows.add(new Row(previous.sequence(i), previous.createdAt(i), previous.recordedAt(i),
+                        previous.mq135(i), previous.temperature(i), previous.humidity(i), previous.distance(i)));
+            }
+            rows.sort(TIME_ORDER);
+            Set<Long> seen = new HashSet<>();
+            rows.removeIf(row -> !seen.add(row.sequence));
+        }
+        ColdBlock block = new ColdBlock(rows.size());
+        long minSequence = Long.MAX_VALUE;
+        long maxSequence = Long.MIN_VALUE;
+        for (int i = 0; i < rows.size(); i++) {
+            Row row = rows.get(i);
+            block.set(i, row.sequence, row.createdAt, row.recordedAt, row.mq135, row.temperature, row.humidity, row.distance);
+            minSequence = Math.min(minSequence, row.sequence);
+            maxSequence = Math.max(maxSequence, row.sequence);
+        }
+        byte[] data = BlockCodec.encode(block);
+        Long[] sequences = sequenceArray(block);
+        jdbcTemplate.update(UPSERT_BLOCK, devicePk, windowStart, rows.get(0).createdAt, rows.get(rows.size() - 1).createdAt,
+                minSequence, maxSequence, rows.size(), new SqlArrayValue("bigint", (Object[]) sequences), data);
+        int deleted = jdbcTemplate.update(DELETE_WINDOW_ROWS, devicePk, windowStart, windowEnd);
+        int delta = rows.size() - previousSize - deleted;
+        if (delta != 0) {
+            jdbcTemplate.update(ADJUST_STORED_ROWS, delta, devicePk);
+        }
+        return new SealResult(sealed, data.length);
+    }
+
+    public int deleteExpired(Instant cutoff) {
+        Integer dropped = jdbcTemplate.queryForObject(DELETE_EXPIRED, Integer.class, cutoff.toEpochMilli());
+        return dropped != null ? dropped : 0;
+    }
+
+    int indexSequences(int limit) {
+        List<Map.Entry<Long, byte[]>> blocks = jdbcTemplate.query(UNINDEXED_BLOCKS,
+                (rs, rowNum) -> Map.entry(rs.getLong(1), rs.getBytes(2)), limit);
+        for (Map.Entry<Long, byte[]> entry : blocks) {
+            jdbcTemplate.update(SET_SEQUENCES, new SqlArrayValue("bigint", (Object[]) sequenceArray(BlockCodec.decode(entry.getValue()))),
+                    entry.getKey());
+        }
+        return blocks.size();
+    }
+
+    private Long[] sequenceArray(ColdBlock block) {
+        Long[] sequences = new Long[block.size()];
+        for (int i = 0; i < sequences.length; i++) {
+            sequences[i] = block.sequence(i);
+        }
+        return sequences;
+    }
+
+    private Optional<Instant> queryInstant(String sql, long devicePk) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Long millis = jdbcTemplate.queryForObject(sql, Long.class, devicePk);
+        return Optional.ofNullable(millis).map(Instant::ofEpochMilli);
+    }
+
+    private static DeviceData toDeviceData(Device device, ColdBlock block, int row) {
+        DeviceData data = new DeviceData();
+        data.setDevice(device);
+        data.setSequenceNumber(block.sequence(row));
+        data.setCreatedAt(Instant.ofEpochMilli(block.createdAt(row)));
+        data.setRecordedAt(block.recordedAt(row) != ColdBlock.NO_TIME ? Instant.ofEpochMilli(block.recordedAt(row)) : null);
+        data.setMq135(orNull(block.mq135(row)));
+        data.setTemperature(orNull(block.temperature(row)));
+        data.setHumidity(orNull(block.humidity(row)));
+        data.setDistance(orNull(block.distance(row)));
+        return data;
+    }
+
+    private static Float orNull(float value) {
+        return Float.isNaN(value) ? null : value;
+    }
+
+    private static float readFloat(ResultSet rs, int column) throws SQLException {
+        float value = rs.getFloat(column);
+        return rs.wasNull() ? Float.NaN : value;
+    }
+
+    public static final class SealResult {
+        private final int rows;
+        private final int bytes;
+
+        SealResult(int rows, int bytes) {
+            this.rows = rows;
+            this.bytes = bytes;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public int getBytes() {
+            return bytes;
+        }
+    }
+
+    private static final class Row {
+        private final long sequence;
+        private final long createdAt;
+        private final long recordedAt;
+        private final float mq135;
+        private final float temperature;
+        private final float humidity;
+        private final float distance;
+
+        private Row(long sequence, long createdAt, long recordedAt, float mq135, float temperature, float humidity, float distance) {
+            this.sequence = sequence;
+            this.createdAt = createdAt;
+            this.recordedAt = recordedAt;
+            this.mq135 = mq135;
+            this.temperature = temperature;
+            this.humidity = humidity;
+            this.distance = distance;
+        }
+    }
+}
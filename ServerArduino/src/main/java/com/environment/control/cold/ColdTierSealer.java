@@ -0,0 +1,94 @@
+package com.environment.control.cold;
+
+import com.environment.control.data.SensorBackfillJob;
+import com.environment.control.device.Device;
+import com.environment.control.device.DeviceRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ColdTierSealer {
+
+    private static final Logger log = LoggerFactory.getLogger(ColdTierSealer.class);
+
+    private final ColdStore coldStore;
+    private final DeviceRepository deviceRepository;
+    private final SensorBackfillJob sensorBackfillJob;
+    private final boolean enabled;
+    private final long afterMs;
+    private final long windowMs;
+    private final int maxBlocksPerRun;
+    private final int retentionDays;
+    private final Counter sealedRows;
+    private final Counter sealedBytes;
+
+    public ColdTierSealer(ColdStore coldStore,
+                          DeviceRepository deviceRepository,
+                          SensorBackfillJob sensorBackfillJob,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.cold.enabled:false}") boolean enabled,
+                          @Value("${app.cold.after-days:7}") int afterDays,
+                          @Value("${app.cold.window-hours:24}") int windowHours,
+                          @Value("${app.cold.max-blocks-per-run:500}") int maxBlocksPerRun,
+                          @Value("${app.cold.retention-days:0}") int retentionDays) {
+        this.coldStore = coldStore;
+        this.deviceRepository = deviceRepository;
+        this.sensorBackfillJob = sensorBackfillJob;
+        this.enabled = enabled;
+        this.afterMs = ChronoUnit.DAYS.getDuration().toMillis() * afterDays;
+        this.windowMs = ChronoUnit.HOURS.getDuration().toMillis() * Math.max(1, windowHours);
+        this.maxBlocksPerRun = maxBlocksPerRun;
+        this.retentionDays = retentionDays;
+        this.sealedRows = Counter.builder("cold.rows.sealed")
+                .description("Readings moved from device_data into compressed cold blocks")
+                .register(meterRegistry);
+        this.sealedBytes = Counter.builder("cold.bytes.written")
+                .description("Compressed block bytes written by the cold tier")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.cold.interval-ms:600000}", initialDelayString = "${app.cold.interval-ms:600000}")
+    public void run() {
+        if (!enabled || !sensorBackfillJob.isFinished()) {
+            return;
+        }
+        long cutoff = Math.floorDiv(System.currentTimeMillis() - afterMs, windowMs) * windowMs;
+        int budget = maxBlocksPerRun;
+        long rows = 0;
+        long bytes = 0;
+        budget -= coldStore.indexSequences(budget);
+        for (Device device : deviceRepository.findByDeletedAtIsNullOrderByIdAsc()) {
+            Optional<Long> oldest;
+            while (budget > 0 && (oldest = coldStore.oldestSealable(device.getId(), cutoff)).isPresent()) {
+                long windowStart = Math.floorDiv(oldest.get(), windowMs) * windowMs;
+                ColdStore.SealResult result = coldStore.sealWindow(device.getId(), windowStart, windowStart + windowMs);
+                rows += result.getRows();
+                bytes += result.getBytes();
+                budget--;
+            }
+            if (budget <= 0) {
+                break;
+            }
+        }
+        sealedRows.increment(rows);
+        sealedBytes.increment(bytes);
+        if (rows > 0) {
+            log.info("Sealed {} reading(s) into {} byte(s) of cold blocks", rows, bytes);
+        }
+        if (retentionDays > 0) {
+            int dropped = coldStore.deleteExpired(Instant.now().minus(retentionDays, ChronoUnit.DAYS));
+            if (dropped > 0) {
+                log.info("Dropped {} cold block(s) past retention", dropped);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.environment.control.cold;
+
+import com.environment.control.device.Device;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.Instant;
+
+@Entity
+@Table(name = "device_data_block",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"device_id", "windowStart"}),
+        indexes = {
+                @Index(name = "idx_device_data_block_device_time", columnList = "device_id, minTime"),
+                @Index(name = "idx_device_data_block_device_sequence", columnList = "device_id, minSequence")
+        })
+public class DeviceDataBlock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "device_id", nullable = false)
+    private Device device;
+
+    @Column(nullable = false)
+    private Instant windowStart;
+
+    @Column(nullable = false)
+    private Instant minTime;
+
+    @Column(nullable = false)
+    private Instant maxTime;
+
+    @Column(nullable = false)
+    private long minSequence;
+
+    @Column(nullable = false)
+    private long maxSequence;
+
+    @Column(nullable = false)
+    private int rowCount;
+
+    @Column(columnDefinition = "bigint[]")
+    private long[] sequences;
+
+    @Column(nullable = false)
+    private byte[] data;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Device getDevice() {
+        return device;
+    }
+
+    public Instant getWindowStart() {
+        return windowStart;
+    }
+
+    public Instant getMinTime() {
+        return minTime;
+    }
+
+    public Instant getMaxTime() {
+        return maxTime;
+    }
+
+    public long getMinSequence() {
+        return minSequence;
+    }
+
+    public long getMaxSequence() {
+        return maxSequence;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public long[] getSequences() {
+        return sequences;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+}
@@ -0,0 +1,110 @@
+package com.environment.control.data;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class BinaryBatchDecoder {
+
+    public static final String MEDIA_TYPE = "application/vnd.environment-control.batch";
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final int HAS_MQ135 = 1;
+    private static final int HAS_TEMPERATURE = 1 << 1;
+    private static final int HAS_HUMIDITY = 1 << 2;
+    private static final int HAS_DISTANCE = 1 << 3;
+    private static final int HAS_RECORDED_AT = 1 << 4;
+    private static final int KNOWN_FIELDS = HAS_MQ135 | HAS_TEMPERATURE | HAS_HUMIDITY | HAS_DISTANCE | HAS_RECORDED_AT;
+
+    private BinaryBatchDecoder() {
+    }
+
+    public static List<DeviceData> decode(InputStream stream) throws IOException {
+        Input input = new Input(new BufferedInputStream(stream));
+        int version = input.read();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported batch format " + version);
+        }
+        List<DeviceData> records = new ArrayList<>();
+        long sequence = 0;
+        int first;
+        while ((first = input.next()) >= 0) {
+            sequence += zigZag(readVarLong(input, first));
+            int fields = input.read();
+            if ((fields & ~KNOWN_FIELDS) != 0) {
+                throw new IllegalArgumentException("Unknown field flags " + fields + " at offset " + (input.position - 1));
+            }
+            DeviceData data = new DeviceData();
+            data.setSequenceNumber(sequence);
+            if ((fields & HAS_MQ135) != 0) {
+                data.setMq135(readFloat(input));
+            }
+            if ((fields & HAS_TEMPERATURE) != 0) {
+                data.setTemperature(readFloat(input));
+            }
+            if ((fields & HAS_HUMIDITY) != 0) {
+                data.setHumidity(readFloat(input));
+            }
+            if ((fields & HAS_DISTANCE) != 0) {
+                data.setDistance(readFloat(input));
+            }
+            if ((fields & HAS_RECORDED_AT) != 0) {
+                data.setRecordedAt(Instant.ofEpochSecond(readVarLong(input, input.read())));
+            }
+            records.add(data);
+        }
+        return records;
+    }
+
+    private static Float readFloat(Input input) throws IOException {
+        int bits = input.read() | input.read() << 8 | input.read() << 16 | input.read() << 24;
+        float value = Float.intBitsToFloat(bits);
+        return Float.isFinite(value) ? value : null;
+    }
+
+    private static long readVarLong(Input input, int first) throws IOException {
+        long value = 0;
+        int b = first;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            b = input.read();
+        }
+        throw new IllegalArgumentException("Varint longer than 64 bits at offset " + input.position);
+    }
+
+    private static long zigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Input {
+
+        private final InputStream stream;
+        private long position;
+
+        private Input(InputStream stream) {
+            this.stream = stream;
+        }
+
+        private int next() throws IOException {
+            int b = stream.read();
+            if (b >= 0) {
+                position++;
+            }
+            return b;
+        }
+
+        private int read() throws IOException {
+            int b = next();
+            if (b < 0) {
+                throw new IllegalArgumentException("Truncated batch at offset " + position);
+            }
+            return b;
+        }
+    }
+}
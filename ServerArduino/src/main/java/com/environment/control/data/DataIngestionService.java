@@ -1,52 +1,162 @@
 package com.environment.control.data;
 
+import com.environment.control.cluster.ClusterEventBus;
+import com.environment.control.cold.ColdStore;
 import com.environment.control.device.Device;
-import com.environment.control.device.DeviceRepository;
+import com.environment.control.device.DeviceCache;
+import com.environment.control.hot.HotTier;
+import com.environment.control.live.LiveFeed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.transaction.Transactional;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 public class DataIngestionService {
 
     private final DeviceDataRepository deviceDataRepository;
-    private final DeviceRepository deviceRepository;
+    private final DeviceDataWriter deviceDataWriter;
+    private final DeviceRowCounter deviceRowCounter;
+    private final SequenceTracker sequenceTracker;
+    private final DeviceCache deviceCache;
+    private final ColdStore coldStore;
+    private final HotTier hotTier;
+    private final LiveFeed liveFeed;
+    private final ClusterEventBus clusterEventBus;
+    private final int maxPageSize;
+    private final Counter inserted;
+    private final Counter duplicates;
 
-    public DataIngestionService(DeviceDataRepository deviceDataRepository, DeviceRepository deviceRepository) {
+    public DataIngestionService(DeviceDataRepository deviceDataRepository,
+                                DeviceDataWriter deviceDataWriter,
+                                DeviceRowCounter deviceRowCounter,
+                                SequenceTracker sequenceTracker,
+                                DeviceCache deviceCache,
+                                ColdStore coldStore,
+                                HotTier hotTier,
+                                LiveFeed liveFeed,
+                                ClusterEventBus clusterEventBus,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.history.max-page-size:500}") int maxPageSize) {
         this.deviceDataRepository = deviceDataRepository;
-        this.deviceRepository = deviceRepository;
+        this.deviceDataWriter = deviceDataWriter;
+        this.deviceRowCounter = deviceRowCounter;
+        this.sequenceTracker = sequenceTracker;
+        this.deviceCache = deviceCache;
+        this.coldStore = coldStore;
+        this.hotTier = hotTier;
+        this.liveFeed = liveFeed;
+        this.clusterEventBus = clusterEventBus;
+        this.maxPageSize = maxPageSize;
+        this.inserted = Counter.builder("ingest.records").tag("result", "inserted")
+                .description("Records written to device_data or skipped as already stored")
+                .register(meterRegistry);
+        this.duplicates = Counter.builder("ingest.records").tag("result", "duplicate")
+                .description("Records written to device_data or skipped as already stored")
+                .register(meterRegistry);
     }
 
     @Transactional
-    public long ingest(Device device, List<DeviceData> records) {
+    public IngestResult ingest(Device device, List<DeviceData> records) {
         long maxSequence = device.getLastSequenceAcknowledged() != null ? device.getLastSequenceAcknowledged() : -1;
+        List<DeviceData> valid = new ArrayList<>(records.size());
         for (DeviceData data : records) {
-            if (data.getSequenceNumber() != null) {
-                maxSequence = Math.max(maxSequence, data.getSequenceNumber());
+            if (data.getSequenceNumber() == null || !data.hasReading()) {
+                continue;
             }
+            maxSequence = Math.max(maxSequence, data.getSequenceNumber());
             data.setDevice(device);
-            try {
-                deviceDataRepository.save(data);
-            } catch (DataIntegrityViolationException ignored) {
-                // Duplicate sequence number for this device, skip
-            }
+            valid.add(data);
         }
-        device.setLastSequenceAcknowledged(maxSequence);
-        deviceRepository.save(device);
-        return maxSequence;
+        List<DeviceData> fresh = sequenceTracker.dropSeen(device, valid);
+        IngestResult stored = fresh.isEmpty()
+                ? new IngestResult(0, 0, maxSequence)
+                : deviceDataWriter.insertBatch(device.getId(), fresh, maxSequence);
+        IngestResult result = new IngestResult(stored.getInserted(), valid.size() - stored.getInserted(), stored.getLastSequence());
+        device.setLastSequenceAcknowledged(result.getLastSequence());
+        inserted.increment(result.getInserted());
+        duplicates.increment(result.getDuplicates());
+        afterCommit(() -> {
+            sequenceTracker.markStored(device, fresh);
+            deviceCache.acknowledged(device.getDeviceId(), result.getLastSequence());
+            hotTier.append(device, stored.getStored());
+            liveFeed.publish(device, stored.getStored());
+            clusterEventBus.publishData(device, stored.getStored());
+        });
+        return result;
+    }
+
+    public HistoryPage getPage(Device device, Long afterSequence, int size) {
+        int limit = clampPageSize(size);
+        long after = afterSequence != null ? afterSequence : Long.MIN_VALUE;
+        List<DeviceData> rows = deviceDataRepository.findByDeviceAndSequenceNumberGreaterThanOrderBySequenceNumberAsc(
+                device, after, Limit.of(limit + 1));
+        List<DeviceData> cold = coldStore.pageBySequence(device, after, limit + 1);
+        return toPage(merge(rows, cold, Comparator.comparing(DeviceData::getSequenceNumber), limit + 1), limit);
+    }
+
+    public HistoryPage getPageInRange(Device device, Instant from, Instant to, Instant afterTime, Long afterSequence, int size) {
+        int limit = clampPageSize(size);
+        Instant start = from != null ? from : Instant.EPOCH;
+        Instant end = to != null ? to : Instant.now().plusSeconds(1);
+        Instant keyTime = afterTime != null ? afterTime : start;
+        long keySequence = afterTime != null && afterSequence != null ? afterSequence : Long.MIN_VALUE;
+        List<DeviceData> rows = deviceDataRepository.findPageInRange(device, start, end, keyTime, keySequence, Limit.of(limit + 1));
+        List<DeviceData> cold = coldStore.pageByTime(device, start, end, keyTime, keySequence, limit + 1);
+        Comparator<DeviceData> byTime = Comparator.comparing(DeviceData::getCreatedAt).thenComparing(DeviceData::getSequenceNumber);
+        return toPage(merge(rows, cold, byTime, limit + 1), limit);
     }
 
-    public List<DeviceData> getData(Device device) {
-        return deviceDataRepository.findByDeviceOrderBySequenceNumberAsc(device);
+    public long countData(Device device) {
+        return deviceRowCounter.count(device.getId());
     }
 
     public long resolveHighestSequence(Device device) {
-        return getData(device).stream()
-                .map(DeviceData::getSequenceNumber)
-                .filter(java.util.Objects::nonNull)
-                .max(Comparator.naturalOrder())
-                .orElse(device.getLastSequenceAcknowledged() != null ? device.getLastSequenceAcknowledged() : -1L);
+        Long highWater = sequenceTracker.highWater(device);
+        if (highWater != null) {
+            return highWater;
+        }
+        return device.getLastSequenceAcknowledged() != null ? device.getLastSequenceAcknowledged() : -1L;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, maxPageSize));
+    }
+
+    private static List<DeviceData> merge(List<DeviceData> hot, List<DeviceData> cold, Comparator<DeviceData> order, int limit) {
+        if (cold.isEmpty()) {
+            return hot;
+        }
+        List<DeviceData> merged = new ArrayList<>(hot.size() + cold.size());
+        merged.addAll(hot);
+        merged.addAll(cold);
+        merged.sort(order);
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    private HistoryPage toPage(List<DeviceData> rows, int limit) {
+        boolean hasMore = rows.size() > limit;
+        return new HistoryPage(hasMore ? rows.subList(0, limit) : rows, hasMore);
     }
 }
@@ -2,19 +2,20 @@ package com.environment.control.data;
 
 import com.environment.control.device.Device;
 import jakarta.persistence.Column;
+import jakarta.persistence.ConstraintMode;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
-import jakarta.persistence.UniqueConstraint;
 import java.time.Instant;
 
 @Entity
-@Table(name = "device_data", uniqueConstraints = @UniqueConstraint(columnNames = {"device_id", "sequenceNumber"}))
+@Table(name = "device_data")
 public class DeviceData {
 
     @Id
@@ -22,15 +23,25 @@ public class DeviceData {
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "device_id", nullable = false)
+    @JoinColumn(name = "device_id", nullable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Device device;
 
     @Column(nullable = false)
     private Long sequenceNumber;
 
-    @Column(nullable = false, length = 2048)
+    @Column(length = 2048)
     private String payload;
 
+    private Float mq135;
+
+    private Float temperature;
+
+    private Float humidity;
+
+    private Float distance;
+
+    private Instant recordedAt;
+
     @Column(nullable = false)
     private Instant createdAt = Instant.now();
 
@@ -62,7 +73,55 @@ public class DeviceData {
         this.payload = payload;
     }
 
+    public Float getMq135() {
+        return mq135;
+    }
+
+    public void setMq135(Float mq135) {
+        this.mq135 = mq135;
+    }
+
+    public Float getTemperature() {
+        return temperature;
+    }
+
+    public void setTemperature(Float temperature) {
+        this.temperature = temperature;
+    }
+
+    public Float getHumidity() {
+        return humidity;
+    }
+
+    public void setHumidity(Float humidity) {
+        this.humidity = humidity;
+    }
+
+    public Float getDistance() {
+        return distance;
+    }
+
+    public void setDistance(Float distance) {
+        this.distance = distance;
+    }
+
+    public Instant getRecordedAt() {
+        return recordedAt;
+    }
+
+    public void setRecordedAt(Instant recordedAt) {
+        this.recordedAt = recordedAt;
+    }
+
+    public boolean hasReading() {
+        return payload != null || mq135 != null || temperature != null || humidity != null || distance != null;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
 }
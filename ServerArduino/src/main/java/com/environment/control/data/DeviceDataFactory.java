@@ -0,0 +1,28 @@
+package com.environment.control.data;
+
+import com.environment.control.api.DeviceDataRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class DeviceDataFactory {
+
+    private final SensorPayloadParser sensorPayloadParser;
+    private final boolean storeRawPayload;
+
+    public DeviceDataFactory(SensorPayloadParser sensorPayloadParser,
+                             @Value("${app.ingest.store-raw-payload:false}") boolean storeRawPayload) {
+        this.sensorPayloadParser = sensorPayloadParser;
+        this.storeRawPayload = storeRawPayload;
+    }
+
+    public DeviceData fromRecord(DeviceDataRecord record) {
+        DeviceData data = new DeviceData();
+        data.setSequenceNumber(record.getSequenceNumber());
+        boolean parsed = sensorPayloadParser.parseInto(record.getPayload(), data);
+        if (storeRawPayload || !parsed) {
+            data.setPayload(record.getPayload());
+        }
+        return data;
+    }
+}
@@ -1,11 +1,27 @@
 package com.environment.control.data;
 
 import com.environment.control.device.Device;
+import java.time.Instant;
 import java.util.List;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface DeviceDataRepository extends JpaRepository<DeviceData, Long> {
-    List<DeviceData> findByDeviceOrderBySequenceNumberAsc(Device device);
+    List<DeviceData> findByDeviceAndSequenceNumberGreaterThanOrderBySequenceNumberAsc(Device device, long after, Limit limit);
 
-    void deleteByDevice(Device device);
+    @Query("""
+            select d from DeviceData d
+            where d.device = :device
+              and d.createdAt >= :from and d.createdAt < :to
+              and (d.createdAt > :afterTime or (d.createdAt = :afterTime and d.sequenceNumber > :afterSequence))
+            order by d.createdAt asc, d.sequenceNumber asc
+            """)
+    List<DeviceData> findPageInRange(@Param("device") Device device,
+                                     @Param("from") Instant from,
+                                     @Param("to") Instant to,
+                                     @Param("afterTime") Instant afterTime,
+                                     @Param("afterSequence") long afterSequence,
+                                     Limit limit);
 }
@@ -0,0 +1,155 @@
+package com.environment.control.data;
+
+import com.environment.control.rollup.RollupSql;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class DeviceDataWriter {
+
+    private static final String COLD_PROBE = """
+                  AND NOT EXISTS (SELECT 1 FROM device_data_block k
+                                  WHERE k.device_id = b.device_id AND b.sequence_number BETWEEN k.min_sequence AND k.max_sequence
+                                    AND (k.row_count = k.max_sequence - k.min_sequence + 1 OR b.sequence_number = ANY (k.sequences)))
+            """;
+
+    private static final String INSERT_BATCH = """
+            WITH batch AS (
+                SELECT DISTINCT ON (sequence_number) ?::bigint AS device_id, *
+                FROM unnest(?::bigint[], ?::text[], ?::bigint[], ?::bigint[], ?::real[], ?::real[], ?::real[], ?::real[])
+                    WITH ORDINALITY AS b(sequence_number, payload, created_at_ms, recorded_at_ms, mq135, temperature, humidity, distance, ord)
+                ORDER BY sequence_number, ord
+            ), inserted AS (
+                INSERT INTO device_data (device_id, sequence_number, payload, created_at, recorded_at, mq135, temperature, humidity, distance)
+                SELECT device_id, sequence_number, payload, to_timestamp(created_at_ms / 1000.0), to_timestamp(recorded_at_ms / 1000.0),
+                       mq135, temperature, humidity, distance
+                FROM batch b
+                WHERE NOT EXISTS (SELECT 1 FROM device_data x WHERE x.device_id = b.device_id AND x.sequence_number = b.sequence_number)
+            %s
+                ON CONFLICT DO NOTHING
+                RETURNING device_id, sequence_number, created_at, mq135, temperature, humidity, distance
+            ), rolled_up AS (
+                %s
+            ), acknowledged AS (
+                UPDATE devices SET last_sequence_acknowledged = GREATEST(COALESCE(last_sequence_acknowledged, -1), ?),
+                                   stored_rows = stored_rows + (SELECT count(*) FROM inserted)
+                WHERE id = ?
+                RETURNING last_sequence_acknowledged
+            )
+            SELECT (SELECT count(*) FROM inserted), (SELECT last_sequence_acknowledged FROM acknowledged),
+                   (SELECT array_agg(sequence_number) FROM inserted)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DeviceWriteLock deviceWriteLock;
+    private final String insertBatch;
+    private final Timer dbTime;
+
+    public DeviceDataWriter(JdbcTemplate jdbcTemplate,
+                            DeviceWriteLock deviceWriteLock,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.cold.enabled:false}") boolean coldEnabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.deviceWriteLock = deviceWriteLock;
+        this.insertBatch = INSERT_BATCH.formatted(coldEnabled ? COLD_PROBE : "", RollupSql.upsertFrom("inserted"));
+        this.dbTime = Timer.builder("ingest.db.duration")
+                .description("Database time spent writing one ingest batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public IngestResult insertBatch(long devicePk, List<DeviceData> records, long maxSequence) {
+        long started = System.nanoTime();
+        try {
+            return write(devicePk, records, maxSequence);
+        } finally {
+            dbTime.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private IngestResult write(long devicePk, List<DeviceData> records, long maxSequence) {
+        int size = records.size();
+        Long[] sequences = new Long[size];
+        String[] payloads = new String[size];
+        Long[] createdAt = new Long[size];
+        Long[] recordedAt = new Long[size];
+        Float[] mq135 = new Float[size];
+        Float[] temperature = new Float[size];
+        Float[] humidity = new Float[size];
+        Float[] distance = new Float[size];
+        for (int i = 0; i < size; i++) {
+            DeviceData data = records.get(i);
+            sequences[i] = data.getSequenceNumber();
+            payloads[i] = data.getPayload();
+            createdAt[i] = data.getCreatedAt().toEpochMilli();
+            recordedAt[i] = data.getRecordedAt() != null ? data.getRecordedAt().toEpochMilli() : null;
+            mq135[i] = data.getMq135();
+            temperature[i] = data.getTemperature();
+            humidity[i] = data.getHumidity();
+            distance[i] = data.getDistance();
+        }
+        deviceWriteLock.lock(devicePk);
+        return jdbcTemplate.execute((Connection con) -> {
+            try (PreparedStatement statement = con.prepareStatement(insertBatch)) {
+                statement.setLong(1, devicePk);
+                Array[] arrays = {
+                        con.createArrayOf("bigint", sequences),
+                        con.createArrayOf("text", payloads),
+                        con.createArrayOf("bigint", createdAt),
+                        con.createArrayOf("bigint", recordedAt),
+                        con.createArrayOf("real", mq135),
+                        con.createArrayOf("real", temperature),
+                        con.createArrayOf("real", humidity),
+                        con.createArrayOf("real", distance)
+                };
+                for (int i = 0; i < arrays.length; i++) {
+                    statement.setArray(i + 2, arrays[i]);
+                }
+                statement.setLong(arrays.length + 2, maxSequence);
+                statement.setLong(arrays.length + 3, devicePk);
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    int inserted = rs.getInt(1);
+                    long last = rs.getLong(2);
+                    if (rs.wasNull()) {
+                        last = maxSequence;
+                    }
+                    List<DeviceData> stored = inserted == size ? records : storedRecords(records, rs.getArray(3));
+                    return new IngestResult(inserted, size - inserted, last, stored);
+                } finally {
+                    for (Array array : arrays) {
+                        array.free();
+                    }
+                }
+            }
+        });
+    }
+
+    private static List<DeviceData> storedRecords(List<DeviceData> records, Array insertedSequences) throws SQLException {
+        if (insertedSequences == null) {
+            return List.of();
+        }
+        Set<Long> remaining = new HashSet<>(Arrays.asList((Long[]) insertedSequences.getArray()));
+        List<DeviceData> stored = new ArrayList<>(remaining.size());
+        for (DeviceData data : records) {
+            if (remaining.remove(data.getSequenceNumber())) {
+                stored.add(data);
+            }
+        }
+        return stored;
+    }
+}
@@ -0,0 +1,42 @@
+package com.environment.control.data;
+
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public class DeviceRowCounter {
+
+    private static final String STORED_ROWS = "SELECT stored_rows FROM devices WHERE id = ?";
+
+    private static final String RECOUNT = """
+            UPDATE devices
+            SET stored_rows = (SELECT count(*) FROM device_data WHERE device_id = ?)
+                + (SELECT COALESCE(sum(row_count), 0) FROM device_data_block WHERE device_id = ?)
+            WHERE id = ?
+            RETURNING stored_rows
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DeviceWriteLock deviceWriteLock;
+
+    public DeviceRowCounter(JdbcTemplate jdbcTemplate, DeviceWriteLock deviceWriteLock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.deviceWriteLock = deviceWriteLock;
+    }
+
+    @Transactional
+    public long count(long devicePk) {
+        List<Long> stored = jdbcTemplate.queryForList(STORED_ROWS, Long.class, devicePk);
+        if (stored.isEmpty()) {
+            return 0;
+        }
+        if (stored.get(0) != null) {
+            return stored.get(0);
+        }
+        deviceWriteLock.lock(devicePk);
+        Long counted = jdbcTemplate.queryForObject(RECOUNT, Long.class, devicePk, devicePk, devicePk);
+        return counted != null ? counted : 0;
+    }
+}
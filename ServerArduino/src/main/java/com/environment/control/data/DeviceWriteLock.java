@@ -0,0 +1,24 @@
+package com.environment.control.data;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Component
+public class DeviceWriteLock {
+
+    private static final String LOCK_DEVICE = "SELECT id FROM devices WHERE id = ? FOR UPDATE";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DeviceWriteLock(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void lock(long devicePk) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Readings of device " + devicePk + " must be written inside a transaction holding its lock");
+        }
+        jdbcTemplate.queryForList(LOCK_DEVICE, Long.class, devicePk);
+    }
+}
@@ -0,0 +1,35 @@
+package com.environment.control.data;
+
+import java.time.Instant;
+import java.util.List;
+
+public class HistoryPage {
+
+    private final List<DeviceData> records;
+    private final boolean hasMore;
+
+    public HistoryPage(List<DeviceData> records, boolean hasMore) {
+        this.records = records;
+        this.hasMore = hasMore;
+    }
+
+    public List<DeviceData> getRecords() {
+        return records;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public Long getNextAfter() {
+        return hasMore ? last().getSequenceNumber() : null;
+    }
+
+    public Instant getNextAfterTime() {
+        return hasMore ? last().getCreatedAt() : null;
+    }
+
+    private DeviceData last() {
+        return records.get(records.size() - 1);
+    }
+}
@@ -0,0 +1,37 @@
+package com.environment.control.data;
+
+import java.util.List;
+
+public class IngestResult {
+    private final int inserted;
+    private final int duplicates;
+    private final long lastSequence;
+    private final List<DeviceData> stored;
+
+    public IngestResult(int inserted, int duplicates, long lastSequence) {
+        this(inserted, duplicates, lastSequence, List.of());
+    }
+
+    public IngestResult(int inserted, int duplicates, long lastSequence, List<DeviceData> stored) {
+        this.inserted = inserted;
+        this.duplicates = duplicates;
+        this.lastSequence = lastSequence;
+        this.stored = stored;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public List<DeviceData> getStored() {
+        return stored;
+    }
+}
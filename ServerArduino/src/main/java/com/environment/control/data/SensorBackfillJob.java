@@ -0,0 +1,137 @@
+package com.environment.control.data;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SensorBackfillJob {
+
+    private static final Logger log = LoggerFactory.getLogger(SensorBackfillJob.class);
+
+    private static final String JOB = "sensor-columns";
+
+    private static final String LOAD_PROGRESS = "SELECT last_id, completed FROM backfill_progress WHERE job = ?";
+
+    private static final String SAVE_PROGRESS = """
+            INSERT INTO backfill_progress (job, last_id, completed) VALUES (?, ?, ?)
+            ON CONFLICT (job) DO UPDATE SET last_id = EXCLUDED.last_id, completed = EXCLUDED.completed
+            """;
+
+    private static final String SELECT_UNPARSED = """
+            SELECT id, payload FROM device_data
+            WHERE id > ? AND payload IS NOT NULL
+              AND mq135 IS NULL AND temperature IS NULL AND humidity IS NULL AND distance IS NULL
+            ORDER BY id
+            LIMIT ?
+            """;
+
+    private static final String UPDATE_PARSED = """
+            UPDATE device_data SET mq135 = ?, temperature = ?, humidity = ?, distance = ?, recorded_at = ?
+            WHERE id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SensorPayloadParser sensorPayloadParser;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int batchesPerRun;
+    private long cursor;
+    private boolean loaded;
+    private boolean completed;
+
+    public SensorBackfillJob(JdbcTemplate jdbcTemplate,
+                             SensorPayloadParser sensorPayloadParser,
+                             @Value("${app.ingest.backfill.enabled:true}") boolean enabled,
+                             @Value("${app.ingest.backfill.batch-size:1000}") int batchSize,
+                             @Value("${app.ingest.backfill.batches-per-run:20}") int batchesPerRun) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sensorPayloadParser = sensorPayloadParser;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.batchesPerRun = batchesPerRun;
+    }
+
+    public synchronized boolean isFinished() {
+        return !enabled || completed;
+    }
+
+    @Scheduled(fixedDelayString = "${app.ingest.backfill.interval-ms:10000}")
+    public synchronized void run() {
+        if (!enabled) {
+            return;
+        }
+        if (!loaded) {
+            loadProgress();
+        }
+        if (completed) {
+            return;
+        }
+        for (int i = 0; i < batchesPerRun; i++) {
+            if (!backfillBatch()) {
+                completed = true;
+                jdbcTemplate.update(SAVE_PROGRESS, JOB, cursor, true);
+                log.info("Sensor column backfill complete");
+                return;
+            }
+        }
+        jdbcTemplate.update(SAVE_PROGRESS, JOB, cursor, false);
+    }
+
+    private void loadProgress() {
+        jdbcTemplate.query(LOAD_PROGRESS, rs -> {
+            cursor = rs.getLong(1);
+            completed = rs.getBoolean(2);
+        }, JOB);
+        loaded = true;
+        if (completed) {
+            log.info("Sensor column backfill already complete");
+        } else if (cursor > 0) {
+            log.info("Resuming sensor column backfill after id {}", cursor);
+        }
+    }
+
+    private boolean backfillBatch() {
+        long start = cursor;
+        List<DeviceData> parsed = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        jdbcTemplate.query(SELECT_UNPARSED, rs -> {
+            long id = rs.getLong(1);
+            cursor = Math.max(cursor, id);
+            DeviceData data = new DeviceData();
+            if (sensorPayloadParser.parseInto(rs.getString(2), data)) {
+                parsed.add(data);
+                ids.add(id);
+            }
+        }, start, batchSize);
+        if (cursor == start) {
+            return false;
+        }
+        if (parsed.isEmpty()) {
+            return true;
+        }
+        List<Object[]> updates = new ArrayList<>(parsed.size());
+        for (int i = 0; i < parsed.size(); i++) {
+            DeviceData data = parsed.get(i);
+            updates.add(new Object[] {
+                    new SqlParameterValue(Types.REAL, data.getMq135()),
+                    new SqlParameterValue(Types.REAL, data.getTemperature()),
+                    new SqlParameterValue(Types.REAL, data.getHumidity()),
+                    new SqlParameterValue(Types.REAL, data.getDistance()),
+                    new SqlParameterValue(Types.TIMESTAMP_WITH_TIMEZONE,
+                            data.getRecordedAt() != null ? Timestamp.from(data.getRecordedAt()) : null),
+                    ids.get(i)
+            });
+        }
+        jdbcTemplate.batchUpdate(UPDATE_PARSED, updates);
+        return true;
+    }
+}
@@ -0,0 +1,185 @@
+package com.environment.control.data;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.time.Instant;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SensorPayloadParser {
+
+    private static final long EPOCH_SECONDS_LIMIT = 100_000_000_000L;
+
+    private final JsonFactory jsonFactory;
+
+    public SensorPayloadParser(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public boolean parseInto(String payload, DeviceData target) {
+        if (payload == null) {
+            return false;
+        }
+        int start = skipWhitespace(payload, 0);
+        if (start < payload.length() && payload.charAt(start) == '{') {
+            return parseJson(payload, target);
+        }
+        return parseKeyValue(payload, start, target);
+    }
+
+    private static boolean parseKeyValue(String s, int pos, DeviceData target) {
+        boolean found = false;
+        int length = s.length();
+        while (pos < length) {
+            int keyStart = pos;
+            while (pos < length && s.charAt(pos) != '=' && !isPairSeparator(s.charAt(pos))) {
+                pos++;
+            }
+            if (pos >= length || s.charAt(pos) != '=') {
+                pos++;
+                continue;
+            }
+            int keyEnd = pos++;
+            int valueStart = pos;
+            while (pos < length && !isPairSeparator(s.charAt(pos))) {
+                pos++;
+            }
+            found |= assign(s, keyStart, keyEnd, parseNumber(s, valueStart, pos), target);
+            pos++;
+        }
+        return found;
+    }
+
+    private boolean parseJson(String payload, DeviceData target) {
+        boolean found = false;
+        try (JsonParser parser = jsonFactory.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String key = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                    found |= assign(key, 0, key.length(), parser.getDoubleValue(), target);
+                } else if (token == JsonToken.VALUE_STRING) {
+                    String text = parser.getText();
+                    found |= assign(key, 0, key.length(), parseNumber(text, 0, text.length()), target);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            return found;
+        }
+        return found;
+    }
+
+    private static boolean assign(String s, int keyStart, int keyEnd, double value, DeviceData target) {
+        keyStart = skipWhitespace(s, keyStart);
+        while (keyEnd > keyStart && Character.isWhitespace(s.charAt(keyEnd - 1))) {
+            keyEnd--;
+        }
+        if (keyIs(s, keyStart, keyEnd, "ts") || keyIs(s, keyStart, keyEnd, "timestamp") || keyIs(s, keyStart, keyEnd, "recordedAt")) {
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                return false;
+            }
+            long epoch = (long) value;
+            target.setRecordedAt(epoch < EPOCH_SECONDS_LIMIT ? Instant.ofEpochSecond(epoch) : Instant.ofEpochMilli(epoch));
+            return true;
+        }
+        Float reading = toFloat(value);
+        if (keyIs(s, keyStart, keyEnd, "mq135")) {
+            target.setMq135(reading);
+        } else if (keyIs(s, keyStart, keyEnd, "temperature") || keyIs(s, keyStart, keyEnd, "tempC") || keyIs(s, keyStart, keyEnd, "temp")) {
+            target.setTemperature(reading);
+        } else if (keyIs(s, keyStart, keyEnd, "humidity") || keyIs(s, keyStart, keyEnd, "hum")) {
+            target.setHumidity(reading);
+        } else if (keyIs(s, keyStart, keyEnd, "distance") || keyIs(s, keyStart, keyEnd, "distanceCm")) {
+            target.setDistance(reading);
+        } else {
+            return false;
+        }
+        return reading != null;
+    }
+
+    private static Float toFloat(double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? null : (float) value;
+    }
+
+    private static boolean keyIs(String s, int start, int end, String key) {
+        return end - start == key.length() && s.regionMatches(true, start, key, 0, key.length());
+    }
+
+    static double parseNumber(String s, int start, int end) {
+        start = skipWhitespace(s, start);
+        while (end > start && Character.isWhitespace(s.charAt(end - 1))) {
+            end--;
+        }
+        if (start >= end) {
+            return Double.NaN;
+        }
+        int pos = start;
+        boolean negative = false;
+        if (s.charAt(pos) == '-' || s.charAt(pos) == '+') {
+            negative = s.charAt(pos) == '-';
+            pos++;
+        }
+        long mantissa = 0;
+        int scale = 0;
+        int digits = 0;
+        boolean fraction = false;
+        for (; pos < end; pos++) {
+            char c = s.charAt(pos);
+            if (c >= '0' && c <= '9') {
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    digits++;
+                    if (fraction) {
+                        scale--;
+                    }
+                } else if (!fraction) {
+                    scale++;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        if (pos < end && (s.charAt(pos) == 'e' || s.charAt(pos) == 'E')) {
+            pos++;
+            boolean negativeExponent = false;
+            if (pos < end && (s.charAt(pos) == '-' || s.charAt(pos) == '+')) {
+                negativeExponent = s.charAt(pos) == '-';
+                pos++;
+            }
+            int exponent = 0;
+            for (; pos < end && s.charAt(pos) >= '0' && s.charAt(pos) <= '9'; pos++) {
+                exponent = Math.min(exponent * 10 + (s.charAt(pos) - '0'), 400);
+            }
+            scale += negativeExponent ? -exponent : exponent;
+        }
+        if (pos != end) {
+            return Double.NaN;
+        }
+        double value = scale >= 0 ? mantissa * Math.pow(10, scale) : mantissa / Math.pow(10, -scale);
+        return negative ? -value : value;
+    }
+
+    private static boolean isPairSeparator(char c) {
+        return c == ',' || c == ';' || c == '&' || c == '\n';
+    }
+
+    private static int skipWhitespace(String s, int pos) {
+        while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+}
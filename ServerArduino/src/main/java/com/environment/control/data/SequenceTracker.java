@@ -0,0 +1,83 @@
+package com.environment.control.data;
+
+import com.environment.control.device.Device;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SequenceTracker {
+
+    private static final String RECENT_SEQUENCES = """
+            SELECT sequence_number FROM device_data
+            WHERE device_id = ?
+              AND sequence_number > (SELECT max(sequence_number) FROM device_data WHERE device_id = ?) - ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int windowSize;
+    private final Cache<Long, SequenceWindow> windows;
+    private final Counter filtered;
+
+    public SequenceTracker(JdbcTemplate jdbcTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.ingest.sequence-window.size:4096}") int windowSize,
+                           @Value("${app.ingest.sequence-window.max-devices:10000}") long maxDevices,
+                           @Value("${app.ingest.sequence-window.idle-ms:3600000}") long idleMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.windowSize = Math.max(Long.SIZE, windowSize / Long.SIZE * Long.SIZE);
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(maxDevices)
+                .expireAfterAccess(Duration.ofMillis(idleMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, windows, "sequenceWindows");
+        this.filtered = Counter.builder("ingest.duplicates.filtered")
+                .description("Records dropped as replays before reaching the database")
+                .register(meterRegistry);
+    }
+
+    public List<DeviceData> dropSeen(Device device, List<DeviceData> records) {
+        SequenceWindow window = window(device);
+        List<DeviceData> fresh = new ArrayList<>(records.size());
+        for (DeviceData data : records) {
+            if (!window.contains(data.getSequenceNumber())) {
+                fresh.add(data);
+            }
+        }
+        filtered.increment(records.size() - fresh.size());
+        return fresh;
+    }
+
+    public void markStored(Device device, List<DeviceData> records) {
+        SequenceWindow window = window(device);
+        for (DeviceData data : records) {
+            window.add(data.getSequenceNumber());
+        }
+    }
+
+    public Long highWater(Device device) {
+        long highWater = window(device).highWater();
+        return highWater == Long.MIN_VALUE ? null : highWater;
+    }
+
+    private SequenceWindow window(Device device) {
+        return windows.get(device.getId(), this::load);
+    }
+
+    private SequenceWindow load(Long devicePk) {
+        SequenceWindow window = new SequenceWindow(windowSize);
+        jdbcTemplate.query(RECENT_SEQUENCES, rs -> {
+            window.add(rs.getLong(1));
+        }, devicePk, devicePk, windowSize);
+        return window;
+    }
+}
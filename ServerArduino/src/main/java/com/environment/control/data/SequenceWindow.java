@@ -0,0 +1,48 @@
+package com.environment.control.data;
+
+import java.util.Arrays;
+
+class SequenceWindow {
+
+    private final int size;
+    private final long[] bits;
+    private long highWater = Long.MIN_VALUE;
+
+    SequenceWindow(int size) {
+        this.size = size;
+        this.bits = new long[size / Long.SIZE];
+    }
+
+    synchronized long highWater() {
+        return highWater;
+    }
+
+    synchronized boolean contains(long sequence) {
+        if (highWater == Long.MIN_VALUE || sequence > highWater || sequence <= highWater - size) {
+            return false;
+        }
+        int slot = slot(sequence);
+        return (bits[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    synchronized void add(long sequence) {
+        if (highWater == Long.MIN_VALUE || sequence - highWater >= size) {
+            Arrays.fill(bits, 0L);
+            highWater = sequence;
+        } else if (sequence > highWater) {
+            for (long cleared = highWater + 1; cleared <= sequence; cleared++) {
+                int slot = slot(cleared);
+                bits[slot >>> 6] &= ~(1L << slot);
+            }
+            highWater = sequence;
+        } else if (sequence <= highWater - size) {
+            return;
+        }
+        int slot = slot(sequence);
+        bits[slot >>> 6] |= 1L << slot;
+    }
+
+    private int slot(long sequence) {
+        return (int) Math.floorMod(sequence, (long) size);
+    }
+}
@@ -0,0 +1,18 @@
+package com.environment.control.device;
+
+public class CommandQueuedEvent {
+    private final String deviceId;
+    private final long queuedAtNanos = System.nanoTime();
+
+    public CommandQueuedEvent(String deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public long getQueuedAtNanos() {
+        return queuedAtNanos;
+    }
+}
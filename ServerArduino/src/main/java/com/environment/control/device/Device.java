@@ -33,6 +33,21 @@ public class Device {
 
     private Instant lastSeen;
 
+    private Instant deletedAt;
+
+    private Long purgedRows;
+
+    private Integer pendingCommands;
+
+    private Integer retentionDays;
+
+    public Device() {
+    }
+
+    Device(Long id) {
+        this.id = id;
+    }
+
     public Long getId() {
         return id;
     }
@@ -92,4 +107,36 @@ public class Device {
     public void setLastSeen(Instant lastSeen) {
         this.lastSeen = lastSeen;
     }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(Instant deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
+    public Long getPurgedRows() {
+        return purgedRows;
+    }
+
+    public void setPurgedRows(Long purgedRows) {
+        this.purgedRows = purgedRows;
+    }
+
+    public int getPendingCommands() {
+        return pendingCommands != null ? pendingCommands : 0;
+    }
+
+    public void setPendingCommands(int pendingCommands) {
+        this.pendingCommands = pendingCommands;
+    }
+
+    public Integer getRetentionDays() {
+        return retentionDays;
+    }
+
+    public void setRetentionDays(Integer retentionDays) {
+        this.retentionDays = retentionDays;
+    }
 }
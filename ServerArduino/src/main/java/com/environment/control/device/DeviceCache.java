@@ -0,0 +1,86 @@
+package com.environment.control.device;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+public class DeviceCache {
+
+    private final DeviceRepository deviceRepository;
+    private final Cache<String, DeviceSnapshot> devices;
+    private final ConcurrentMap<String, Long> requestVersions = new ConcurrentHashMap<>();
+
+    public DeviceCache(DeviceRepository deviceRepository,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.devices.cache.max-size:10000}") long maxSize,
+                       @Value("${app.devices.cache.ttl-ms:60000}") long ttlMs) {
+        this.deviceRepository = deviceRepository;
+        this.devices = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, devices, "devices");
+    }
+
+    public Optional<Device> find(String deviceId) {
+        return snapshot(deviceId).map(DeviceSnapshot::toDevice);
+    }
+
+    public Optional<DeviceSnapshot> snapshot(String deviceId) {
+        return Optional.ofNullable(devices.get(deviceId, id -> {
+            long version = requestVersion(id);
+            return deviceRepository.findByDeviceIdAndDeletedAtIsNull(id).map(device -> DeviceSnapshot.of(device, version)).orElse(null);
+        }));
+    }
+
+    public long requestVersion(String deviceId) {
+        return requestVersions.getOrDefault(deviceId, 0L);
+    }
+
+    public void requested(String deviceId) {
+        requestVersions.merge(deviceId, 1L, Long::sum);
+        evict(deviceId);
+    }
+
+    public void acknowledged(String deviceId, long sequence) {
+        devices.asMap().computeIfPresent(deviceId, (id, snapshot) -> snapshot.withLastSequenceAcknowledged(sequence));
+    }
+
+    public void evict(String deviceId) {
+        devices.invalidate(deviceId);
+    }
+
+    public void evictAll() {
+        devices.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceInvalidated(DeviceInvalidatedEvent event) {
+        evict(event.getDeviceId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceChanged(DeviceChangedEvent event) {
+        evict(event.getDeviceId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUploadRequested(UploadRequestedEvent event) {
+        requested(event.getDeviceId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommandQueued(CommandQueuedEvent event) {
+        requested(event.getDeviceId());
+    }
+}
@@ -0,0 +1,13 @@
+package com.environment.control.device;
+
+public class DeviceChangedEvent {
+    private final String deviceId;
+
+    public DeviceChangedEvent(String deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+}
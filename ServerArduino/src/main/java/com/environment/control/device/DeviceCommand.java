@@ -0,0 +1,82 @@
+package com.environment.control.device;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+@Entity
+@Table(name = "device_commands",
+        indexes = @Index(name = "idx_device_commands_device", columnList = "device_id, id"))
+public class DeviceCommand {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "device_id", nullable = false)
+    private Device device;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private DeviceCommandType type;
+
+    private Long commandValue;
+
+    private Long fromSequence;
+
+    private Long toSequence;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    protected DeviceCommand() {
+    }
+
+    public DeviceCommand(Device device, DeviceCommandType type, Long commandValue, Long fromSequence, Long toSequence) {
+        this.device = device;
+        this.type = type;
+        this.commandValue = commandValue;
+        this.fromSequence = fromSequence;
+        this.toSequence = toSequence;
+        this.createdAt = Instant.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Device getDevice() {
+        return device;
+    }
+
+    public DeviceCommandType getType() {
+        return type;
+    }
+
+    public Long getCommandValue() {
+        return commandValue;
+    }
+
+    public Long getFromSequence() {
+        return fromSequence;
+    }
+
+    public Long getToSequence() {
+        return toSequence;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,31 @@
+package com.environment.control.device;
+
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface DeviceCommandRepository extends JpaRepository<DeviceCommand, Long> {
+    List<DeviceCommand> findByDeviceOrderByIdAsc(Device device, Limit limit);
+
+    long countByDevice(Device device);
+
+    boolean existsByDeviceAndType(Device device, DeviceCommandType type);
+
+    boolean existsByDeviceAndTypeAndIdIn(Device device, DeviceCommandType type, Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from DeviceCommand c where c.device = :device and c.id in :ids")
+    int deleteAcknowledged(@Param("device") Device device, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from DeviceCommand c where c.device = :device and c.type = :type")
+    int deleteByType(@Param("device") Device device, @Param("type") DeviceCommandType type);
+
+    @Modifying
+    @Query("delete from DeviceCommand c where c.device = :device")
+    int deleteAllFor(@Param("device") Device device);
+}
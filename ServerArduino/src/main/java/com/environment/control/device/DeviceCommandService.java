@@ -0,0 +1,173 @@
+package com.environment.control.device;
+
+import com.environment.control.api.PendingCommand;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+@Service
+public class DeviceCommandService {
+
+    private static final long MIN_SAMPLE_INTERVAL_MS = 1000;
+    private static final long MAX_SAMPLE_INTERVAL_MS = 86_400_000;
+    private static final String ADJUST_PENDING = """
+            UPDATE devices SET pending_commands = GREATEST(COALESCE(pending_commands, 0) + ?, 0)
+            WHERE id = ?
+            RETURNING pending_commands
+            """;
+
+    private final DeviceCommandRepository commandRepository;
+    private final DeviceRepository deviceRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxPending;
+    private final int maxInline;
+    private final int maxAcknowledged;
+    private final Map<DeviceCommandType, Counter> queued = new EnumMap<>(DeviceCommandType.class);
+    private final Counter acknowledged;
+
+    public DeviceCommandService(DeviceCommandRepository commandRepository,
+                                DeviceRepository deviceRepository,
+                                JdbcTemplate jdbcTemplate,
+                                ApplicationEventPublisher eventPublisher,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.devices.commands.max-pending:32}") int maxPending,
+                                @Value("${app.devices.commands.max-inline:8}") int maxInline,
+                                @Value("${app.devices.commands.max-acknowledged:32}") int maxAcknowledged) {
+        this.commandRepository = commandRepository;
+        this.deviceRepository = deviceRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.maxPending = Math.max(1, maxPending);
+        this.maxInline = Math.max(1, maxInline);
+        this.maxAcknowledged = Math.max(1, maxAcknowledged);
+        for (DeviceCommandType type : DeviceCommandType.values()) {
+            queued.put(type, Counter.builder("device.commands.queued").tag("type", type.name())
+                    .description("Commands queued for devices to pick up with their next ack or poll")
+                    .register(meterRegistry));
+        }
+        this.acknowledged = Counter.builder("device.commands.acknowledged")
+                .description("Queued device commands acknowledged by the device or completed by an upload")
+                .register(meterRegistry);
+    }
+
+    @Transactional
+    public void enqueue(Device device, DeviceCommandType type, Long value, Long from, Long to) {
+        validate(type, value, from, to);
+        if (commandRepository.countByDevice(device) >= maxPending) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Too many pending commands for " + device.getDeviceId());
+        }
+        append(device, type, value, from, to);
+        eventPublisher.publishEvent(new CommandQueuedEvent(device.getDeviceId()));
+    }
+
+    void queueUpload(Device device) {
+        if (!commandRepository.existsByDeviceAndType(device, DeviceCommandType.UPLOAD_NOW)) {
+            append(device, DeviceCommandType.UPLOAD_NOW, null, null, null);
+        }
+    }
+
+    public List<PendingCommand> pending(Device device, boolean recheck) {
+        if (!recheck && device.getPendingCommands() <= 0) {
+            return List.of();
+        }
+        List<DeviceCommand> commands = listPending(device, maxInline);
+        if (commands.isEmpty()) {
+            device.setPendingCommands(0);
+            return List.of();
+        }
+        return commands.stream()
+                .map(command -> new PendingCommand(command.getId(), command.getType().name(), command.getCommandValue(),
+                        command.getFromSequence(), command.getToSequence()))
+                .toList();
+    }
+
+    public List<DeviceCommand> listPending(Device device, int limit) {
+        return commandRepository.findByDeviceOrderByIdAsc(device, Limit.of(limit));
+    }
+
+    public void checkAcknowledgeable(Collection<Long> ids) {
+        if (ids != null && ids.size() > maxAcknowledged) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + maxAcknowledged + " command ids per request");
+        }
+    }
+
+    @Transactional
+    public void acknowledge(Device device, Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return;
+        }
+        checkAcknowledgeable(ids);
+        boolean upload = commandRepository.existsByDeviceAndTypeAndIdIn(device, DeviceCommandType.UPLOAD_NOW, ids);
+        removed(device, commandRepository.deleteAcknowledged(device, ids));
+        if (upload && deviceRepository.clearUploadRequested(device.getId()) > 0) {
+            device.setUploadRequested(false);
+            eventPublisher.publishEvent(new DeviceChangedEvent(device.getDeviceId()));
+        }
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void completeUploads(Device device) {
+        if (device.getPendingCommands() > 0) {
+            removed(device, commandRepository.deleteByType(device, DeviceCommandType.UPLOAD_NOW));
+        }
+    }
+
+    void clearUploads(Device device) {
+        removed(device, commandRepository.deleteByType(device, DeviceCommandType.UPLOAD_NOW));
+    }
+
+    void clearAll(Device device) {
+        commandRepository.deleteAllFor(device);
+        device.setPendingCommands(0);
+    }
+
+    private void append(Device device, DeviceCommandType type, Long value, Long from, Long to) {
+        commandRepository.save(new DeviceCommand(device, type, value, from, to));
+        adjustPending(device, 1);
+        queued.get(type).increment();
+    }
+
+    private void removed(Device device, int count) {
+        if (count == 0) {
+            return;
+        }
+        adjustPending(device, -count);
+        acknowledged.increment(count);
+        eventPublisher.publishEvent(new DeviceChangedEvent(device.getDeviceId()));
+    }
+
+    private void adjustPending(Device device, int delta) {
+        Integer pending = jdbcTemplate.queryForObject(ADJUST_PENDING, Integer.class, delta, device.getId());
+        device.setPendingCommands(pending != null ? pending : 0);
+    }
+
+    private static void validate(DeviceCommandType type, Long value, Long from, Long to) {
+        switch (type) {
+            case SET_SAMPLE_INTERVAL -> {
+                if (value == null || value < MIN_SAMPLE_INTERVAL_MS || value > MAX_SAMPLE_INTERVAL_MS) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "Sample interval must be between " + MIN_SAMPLE_INTERVAL_MS + " and " + MAX_SAMPLE_INTERVAL_MS + " ms");
+                }
+            }
+            case RESEND_RANGE -> {
+                if (from == null || to == null || from < 0 || to < from) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Resend range needs 0 <= from <= to");
+                }
+            }
+            case UPLOAD_NOW -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Upload requests go through request-upload");
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.environment.control.device;
+
+public enum DeviceCommandType {
+    UPLOAD_NOW,
+    SET_SAMPLE_INTERVAL,
+    RESEND_RANGE
+}
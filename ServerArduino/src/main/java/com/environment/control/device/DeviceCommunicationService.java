@@ -3,58 +3,173 @@ package com.environment.control.device;
 import com.environment.control.api.DeviceDataRecord;
 import com.environment.control.data.DataIngestionService;
 import com.environment.control.data.DeviceData;
+import com.environment.control.data.DeviceDataFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
 @Service
 public class DeviceCommunicationService {
 
-    private final RestTemplate restTemplate;
+    private final HttpClient httpClient;
+    private final Duration readTimeout;
+    private final ObjectMapper objectMapper;
     private final DataIngestionService dataIngestionService;
+    private final DeviceDataFactory deviceDataFactory;
     private final DeviceService deviceService;
+    private final MeterRegistry meterRegistry;
+    private final boolean deviceTags;
+    private final ConcurrentMap<String, PullTimers> pullTimers = new ConcurrentHashMap<>();
 
-    public DeviceCommunicationService(RestTemplateBuilder restTemplateBuilder,
+    public DeviceCommunicationService(ObjectMapper objectMapper,
                                       DataIngestionService dataIngestionService,
-                                      DeviceService deviceService) {
-        this.restTemplate = restTemplateBuilder.build();
+                                      DeviceDataFactory deviceDataFactory,
+                                      DeviceService deviceService,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${app.metrics.device-tags:true}") boolean deviceTags,
+                                      @Value("${app.pull.connect-timeout-ms:2000}") long connectTimeoutMs,
+                                      @Value("${app.pull.read-timeout-ms:5000}") long readTimeoutMs) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        this.readTimeout = Duration.ofMillis(readTimeoutMs);
+        this.objectMapper = objectMapper;
         this.dataIngestionService = dataIngestionService;
+        this.deviceDataFactory = deviceDataFactory;
         this.deviceService = deviceService;
+        this.meterRegistry = meterRegistry;
+        this.deviceTags = deviceTags;
     }
 
     public int pullFromDevice(Device device) {
-        if (device.getEndpointUrl() == null || device.getEndpointUrl().isBlank()) {
+        try {
+            return pull(device);
+        } catch (RestClientException ex) {
             return 0;
         }
+    }
+
+    public int pull(Device device) {
         try {
-            DeviceDataRecord[] payload = restTemplate.getForObject(device.getEndpointUrl(), DeviceDataRecord[].class);
-            List<DeviceDataRecord> records = payload != null
-                    ? Arrays.asList(payload)
-                    : Collections.emptyList();
-            List<DeviceData> entities = records.stream()
-                    .filter(record -> record.getSequenceNumber() != null && record.getPayload() != null)
-                    .map(record -> toEntity(record, device))
-                    .collect(Collectors.toList());
-            if (!entities.isEmpty()) {
-                dataIngestionService.ingest(device, entities);
-                deviceService.touch(device);
+            return pullAsync(device, Runnable::run).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
             }
-            return entities.size();
-        } catch (RestClientException ex) {
-            return 0;
+            throw ex;
+        }
+    }
+
+    public CompletableFuture<Integer> pullAsync(Device device, Executor ingestExecutor) {
+        if (device.getEndpointUrl() == null || device.getEndpointUrl().isBlank()) {
+            return CompletableFuture.completedFuture(0);
+        }
+        PullTimers timers = pullTimers.computeIfAbsent(deviceTags ? device.getDeviceId() : "all", this::pullTimers);
+        long started = System.nanoTime();
+        URI uri;
+        try {
+            uri = pullUri(device);
+        } catch (IllegalArgumentException ex) {
+            timers.failure.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return CompletableFuture.failedFuture(ex);
         }
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(readTimeout)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .GET()
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, error) -> body(uri, response, error))
+                .thenApplyAsync(body -> ingest(device, uri, body), ingestExecutor)
+                .whenComplete((pulled, error) -> (error == null ? timers.success : timers.failure)
+                        .record(System.nanoTime() - started, TimeUnit.NANOSECONDS));
+    }
+
+    private PullTimers pullTimers(String deviceTag) {
+        return new PullTimers(pullTimer(deviceTag, "success"), pullTimer(deviceTag, "failure"));
     }
 
-    private DeviceData toEntity(DeviceDataRecord record, Device device) {
-        DeviceData data = new DeviceData();
-        data.setDevice(device);
-        data.setSequenceNumber(record.getSequenceNumber());
-        data.setPayload(record.getPayload());
-        return data;
+    private Timer pullTimer(String deviceTag, String outcome) {
+        return Timer.builder("device.pull.duration")
+                .description("Time to pull and store readings from a device endpoint")
+                .tag("device", deviceTag)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static byte[] body(URI uri, HttpResponse<byte[]> response, Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            throw new ResourceAccessException("I/O error on GET request for \"" + uri + "\": " + cause.getMessage(),
+                    cause instanceof IOException io ? io : new IOException(cause));
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new RestClientException("GET " + uri + " returned HTTP " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    private int ingest(Device device, URI uri, byte[] body) {
+        DeviceDataRecord[] payload;
+        try {
+            payload = body.length > 0 ? objectMapper.readValue(body, DeviceDataRecord[].class) : null;
+        } catch (IOException ex) {
+            throw new RestClientException("Could not read response from " + uri, ex);
+        }
+        List<DeviceDataRecord> records = payload != null
+                ? Arrays.asList(payload)
+                : Collections.emptyList();
+        List<DeviceData> entities = records.stream()
+                .filter(record -> record.getSequenceNumber() != null && record.getPayload() != null)
+                .map(deviceDataFactory::fromRecord)
+                .collect(Collectors.toList());
+        deviceService.touch(device);
+        if (!entities.isEmpty()) {
+            dataIngestionService.ingest(device, entities);
+        }
+        return entities.size();
+    }
+
+    private URI pullUri(Device device) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(device.getEndpointUrl());
+        if (device.getLastSequenceAcknowledged() != null) {
+            builder.replaceQueryParam("after", device.getLastSequenceAcknowledged());
+        }
+        return builder.build().toUri();
+    }
+
+    private static final class PullTimers {
+        private final Timer success;
+        private final Timer failure;
+
+        private PullTimers(Timer success, Timer failure) {
+            this.success = success;
+            this.failure = failure;
+        }
     }
 }
@@ -0,0 +1,13 @@
+package com.environment.control.device;
+
+public class DeviceInvalidatedEvent {
+    private final String deviceId;
+
+    public DeviceInvalidatedEvent(String deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+}
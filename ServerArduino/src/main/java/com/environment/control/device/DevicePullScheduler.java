@@ -0,0 +1,180 @@
+package com.environment.control.device;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+@Component
+public class DevicePullScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(DevicePullScheduler.class);
+
+    private final DeviceService deviceService;
+    private final DeviceCommunicationService deviceCommunicationService;
+    private final boolean enabled;
+    private final int concurrency;
+    private final long cycleTimeoutMs;
+    private final long backoffInitialMs;
+    private final long backoffMaxMs;
+    private final ExecutorService executor;
+    private final ConcurrentMap<String, Backoff> backoffs = new ConcurrentHashMap<>();
+    private final AtomicBoolean cycleRunning = new AtomicBoolean();
+    private final Counter remoteFailures;
+    private final Counter errors;
+    private final Counter timeouts;
+
+    public DevicePullScheduler(DeviceService deviceService,
+                               DeviceCommunicationService deviceCommunicationService,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.pull.enabled:false}") boolean enabled,
+                               @Value("${app.pull.concurrency:32}") int concurrency,
+                               @Value("${app.pull.cycle-timeout-ms:30000}") long cycleTimeoutMs,
+                               @Value("${app.pull.backoff-initial-ms:5000}") long backoffInitialMs,
+                               @Value("${app.pull.backoff-max-ms:600000}") long backoffMaxMs) {
+        this.deviceService = deviceService;
+        this.deviceCommunicationService = deviceCommunicationService;
+        this.enabled = enabled;
+        this.concurrency = Math.max(1, concurrency);
+        this.cycleTimeoutMs = cycleTimeoutMs;
+        this.backoffInitialMs = backoffInitialMs;
+        this.backoffMaxMs = backoffMaxMs;
+        this.executor = Executors.newFixedThreadPool(this.concurrency, daemonThreads());
+        this.remoteFailures = failures(meterRegistry, "remote");
+        this.errors = failures(meterRegistry, "error");
+        this.timeouts = failures(meterRegistry, "timeout");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${app.pull.interval-ms:60000}")
+    public void pullAll() {
+        if (!enabled || !cycleRunning.compareAndSet(false, true)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Queue<Device> due = new ConcurrentLinkedQueue<>();
+        try {
+            for (Device device : deviceService.listDevices()) {
+                if (device.getEndpointUrl() == null || device.getEndpointUrl().isBlank()) {
+                    continue;
+                }
+                Backoff backoff = backoffs.get(device.getDeviceId());
+                if (backoff != null && backoff.nextAttemptAt > now) {
+                    continue;
+                }
+                due.add(device);
+            }
+        } catch (RuntimeException ex) {
+            cycleRunning.set(false);
+            throw ex;
+        }
+        if (due.isEmpty()) {
+            cycleRunning.set(false);
+            return;
+        }
+        int devices = due.size();
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(cycleTimeoutMs);
+        CompletableFuture<?>[] lanes = new CompletableFuture<?>[Math.min(concurrency, devices)];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = pullNext(due, deadline);
+        }
+        CompletableFuture.allOf(lanes).whenComplete((ignored, error) -> {
+            cycleRunning.set(false);
+            log.debug("Pulled {} device(s) in {} ms", devices, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        });
+    }
+
+    private CompletableFuture<Void> pullNext(Queue<Device> due, long deadline) {
+        Device device;
+        while ((device = due.poll()) != null) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining > 0) {
+                Device current = device;
+                return deviceCommunicationService.pullAsync(current, executor)
+                        .orTimeout(remaining, TimeUnit.NANOSECONDS)
+                        .handle((pulled, error) -> {
+                            collect(current, error);
+                            return null;
+                        })
+                        .thenComposeAsync(ignored -> pullNext(due, deadline), executor);
+            }
+            collect(device, new TimeoutException());
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private void collect(Device device, Throwable error) {
+        if (error == null) {
+            backoffs.remove(device.getDeviceId());
+            return;
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        Backoff backoff = backOff(device);
+        if (cause instanceof TimeoutException) {
+            timeouts.increment();
+            log.warn("Pull from {} did not finish within {} ms ({} consecutive)", device.getDeviceId(), cycleTimeoutMs, backoff.failures);
+        } else if (cause instanceof RestClientException) {
+            remoteFailures.increment();
+            log.debug("Pull from {} failed ({} consecutive): {}", device.getDeviceId(), backoff.failures, cause.getMessage());
+        } else {
+            errors.increment();
+            log.warn("Pull from {} failed ({} consecutive)", device.getDeviceId(), backoff.failures, cause);
+        }
+    }
+
+    private Backoff backOff(Device device) {
+        return backoffs.compute(device.getDeviceId(), (id, previous) -> {
+            int failures = previous != null ? previous.failures + 1 : 1;
+            long delay = Math.min(backoffMaxMs, backoffInitialMs << Math.min(failures - 1, 20));
+            return new Backoff(failures, System.currentTimeMillis() + delay);
+        });
+    }
+
+    private static Counter failures(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("device.pull.failures").tag("reason", reason)
+                .description("Device pulls that failed at the endpoint, failed while storing, or ran past the cycle timeout")
+                .register(meterRegistry);
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "device-pull-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Backoff {
+        private final int failures;
+        private final long nextAttemptAt;
+
+        private Backoff(int failures, long nextAttemptAt) {
+            this.failures = failures;
+            this.nextAttemptAt = nextAttemptAt;
+        }
+    }
+}
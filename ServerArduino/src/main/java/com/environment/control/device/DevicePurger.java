@@ -0,0 +1,133 @@
+package com.environment.control.device;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class DevicePurger {
+
+    private static final Logger log = LoggerFactory.getLogger(DevicePurger.class);
+
+    private static final String DELETE_DATA_CHUNK = """
+            DELETE FROM device_data
+            WHERE id IN (SELECT id FROM device_data WHERE device_id = ? LIMIT ?)
+            """;
+
+    private static final String DELETE_BLOCK_CHUNK = """
+            WITH deleted AS (
+                DELETE FROM device_data_block
+                WHERE id IN (SELECT id FROM device_data_block WHERE device_id = ? LIMIT ?)
+                RETURNING row_count
+            )
+            SELECT count(*), COALESCE(sum(row_count), 0) FROM deleted
+            """;
+
+    private static final String DELETE_ROLLUP_CHUNK = """
+            DELETE FROM device_data_rollup
+            WHERE id IN (SELECT id FROM device_data_rollup WHERE device_id = ? LIMIT ?)
+            """;
+
+    private static final String RECORD_PROGRESS = """
+            UPDATE devices SET purged_rows = COALESCE(purged_rows, 0) + ?, stored_rows = stored_rows - ?
+            WHERE id = ?
+            """;
+
+    private static final String DELETE_DEVICE = "DELETE FROM devices WHERE id = ? AND deleted_at IS NOT NULL";
+
+    private final DeviceRepository deviceRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final int chunkSize;
+    private final int blockChunkSize;
+    private final int maxChunksPerRun;
+    private final long pauseMs;
+
+    public DevicePurger(DeviceRepository deviceRepository,
+                        JdbcTemplate jdbcTemplate,
+                        @Value("${app.devices.purge.chunk-size:5000}") int chunkSize,
+                        @Value("${app.devices.purge.block-chunk-size:20}") int blockChunkSize,
+                        @Value("${app.devices.purge.max-chunks-per-run:200}") int maxChunksPerRun,
+                        @Value("${app.devices.purge.pause-ms:50}") long pauseMs) {
+        this.deviceRepository = deviceRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkSize = chunkSize;
+        this.blockChunkSize = Math.max(1, blockChunkSize);
+        this.maxChunksPerRun = maxChunksPerRun;
+        this.pauseMs = pauseMs;
+    }
+
+    @Scheduled(fixedDelayString = "${app.devices.purge.interval-ms:5000}")
+    public void run() {
+        int budget = maxChunksPerRun;
+        for (Device device : deviceRepository.findByDeletedAtIsNotNullOrderByDeletedAtAsc()) {
+            budget = purge(device, budget);
+            if (budget <= 0) {
+                return;
+            }
+        }
+    }
+
+    private int purge(Device device, int budget) {
+        long removed = device.getPurgedRows() != null ? device.getPurgedRows() : 0;
+        int chunks = 0;
+        while (budget > 0) {
+            int deleted = jdbcTemplate.update(DELETE_DATA_CHUNK, device.getId(), chunkSize);
+            budget--;
+            if (deleted > 0) {
+                jdbcTemplate.update(RECORD_PROGRESS, deleted, deleted, device.getId());
+                removed += deleted;
+                if (++chunks % 20 == 0) {
+                    log.info("Purging device {}: {} reading(s) removed so far", device.getId(), removed);
+                }
+            }
+            if (deleted < chunkSize) {
+                break;
+            }
+            pause();
+        }
+        if (budget <= 0) {
+            return budget;
+        }
+        while (budget > 0) {
+            long[] deleted = jdbcTemplate.queryForObject(DELETE_BLOCK_CHUNK,
+                    (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)}, device.getId(), blockChunkSize);
+            budget--;
+            if (deleted[1] > 0) {
+                jdbcTemplate.update(RECORD_PROGRESS, deleted[1], deleted[1], device.getId());
+                removed += deleted[1];
+            }
+            if (deleted[0] < blockChunkSize) {
+                break;
+            }
+            pause();
+        }
+        if (budget <= 0) {
+            return budget;
+        }
+        while (budget > 0) {
+            int deleted = jdbcTemplate.update(DELETE_ROLLUP_CHUNK, device.getId(), chunkSize);
+            budget--;
+            if (deleted < chunkSize) {
+                jdbcTemplate.update(DELETE_DEVICE, device.getId());
+                log.info("Purged device {} ({} reading(s) removed)", device.getId(), removed);
+                return budget;
+            }
+            pause();
+        }
+        return budget;
+    }
+
+    private void pause() {
+        if (pauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,8 +1,39 @@
 package com.environment.control.device;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface DeviceRepository extends JpaRepository<Device, Long> {
-    Optional<Device> findByDeviceId(String deviceId);
+    Optional<Device> findByDeviceIdAndDeletedAtIsNull(String deviceId);
+
+    List<Device> findByDeletedAtIsNullOrderByIdAsc();
+
+    List<Device> findByDeletedAtIsNotNullOrderByDeletedAtAsc();
+
+    List<Device> findByRetentionDaysIsNotNullAndDeletedAtIsNullOrderByIdAsc();
+
+    @Modifying
+    @Query("update Device d set d.retentionDays = :days where d.id = :id")
+    int updateRetentionDays(@Param("id") Long id, @Param("days") Integer days);
+
+    @Modifying
+    @Query("update Device d set d.uploadRequested = true where d.id = :id")
+    int markUploadRequested(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Device d set d.uploadRequested = false where d.id = :id and d.uploadRequested = true")
+    int clearUploadRequested(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Device d set d.secret = :secret where d.id = :id")
+    int updateSecret(@Param("id") Long id, @Param("secret") String secret);
+
+    @Modifying
+    @Query("update Device d set d.deletedAt = :deletedAt, d.deviceId = :tombstoneId, d.uploadRequested = false, d.purgedRows = 0, d.pendingCommands = 0 where d.id = :id")
+    int tombstone(@Param("id") Long id, @Param("tombstoneId") String tombstoneId, @Param("deletedAt") Instant deletedAt);
 }
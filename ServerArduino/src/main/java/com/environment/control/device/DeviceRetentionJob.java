@@ -0,0 +1,113 @@
+package com.environment.control.device;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class DeviceRetentionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(DeviceRetentionJob.class);
+
+    private static final String DELETE_DATA_CHUNK = """
+            WITH deleted AS (
+                DELETE FROM device_data
+                WHERE (id, created_at) IN (SELECT id, created_at FROM device_data
+                                           WHERE device_id = ? AND created_at < to_timestamp(? / 1000.0)
+                                           LIMIT ?)
+                RETURNING 1
+            ), counted AS (
+                UPDATE devices SET stored_rows = stored_rows - (SELECT count(*) FROM deleted) WHERE id = ?
+            )
+            SELECT count(*) FROM deleted
+            """;
+
+    private static final String DELETE_BLOCK_CHUNK = """
+            WITH deleted AS (
+                DELETE FROM device_data_block
+                WHERE id IN (SELECT id FROM device_data_block
+                             WHERE device_id = ? AND max_time < to_timestamp(? / 1000.0)
+                             LIMIT ?)
+                RETURNING row_count
+            ), counted AS (
+                UPDATE devices SET stored_rows = stored_rows - (SELECT COALESCE(sum(row_count), 0) FROM deleted) WHERE id = ?
+            )
+            SELECT count(*) FROM deleted
+            """;
+
+    private final DeviceRepository deviceRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final int chunkSize;
+    private final int blockChunkSize;
+    private final int maxChunksPerRun;
+    private final long pauseMs;
+
+    public DeviceRetentionJob(DeviceRepository deviceRepository,
+                              JdbcTemplate jdbcTemplate,
+                              @Value("${app.devices.retention.chunk-size:5000}") int chunkSize,
+                              @Value("${app.devices.retention.block-chunk-size:20}") int blockChunkSize,
+                              @Value("${app.devices.retention.max-chunks-per-run:200}") int maxChunksPerRun,
+                              @Value("${app.devices.retention.pause-ms:50}") long pauseMs) {
+        this.deviceRepository = deviceRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.blockChunkSize = Math.max(1, blockChunkSize);
+        this.maxChunksPerRun = maxChunksPerRun;
+        this.pauseMs = pauseMs;
+    }
+
+    @Scheduled(fixedDelayString = "${app.devices.retention.interval-ms:600000}")
+    public void run() {
+        int budget = maxChunksPerRun;
+        for (Device device : deviceRepository.findByRetentionDaysIsNotNullAndDeletedAtIsNullOrderByIdAsc()) {
+            long cutoff = Instant.now().minus(device.getRetentionDays(), ChronoUnit.DAYS).toEpochMilli();
+            budget = expire(device, cutoff, budget);
+            if (budget <= 0) {
+                return;
+            }
+        }
+    }
+
+    private int expire(Device device, long cutoff, int budget) {
+        long removed = 0;
+        while (budget > 0) {
+            Integer deleted = jdbcTemplate.queryForObject(DELETE_DATA_CHUNK, Integer.class,
+                    device.getId(), cutoff, chunkSize, device.getId());
+            budget--;
+            removed += deleted != null ? deleted : 0;
+            if (deleted == null || deleted < chunkSize) {
+                break;
+            }
+            pause();
+        }
+        while (budget > 0) {
+            Integer deleted = jdbcTemplate.queryForObject(DELETE_BLOCK_CHUNK, Integer.class,
+                    device.getId(), cutoff, blockChunkSize, device.getId());
+            budget--;
+            if (deleted == null || deleted < blockChunkSize) {
+                break;
+            }
+            pause();
+        }
+        if (removed > 0) {
+            log.info("Removed {} reading(s) of device {} past its {}-day retention", removed, device.getId(), device.getRetentionDays());
+        }
+        return budget;
+    }
+
+    private void pause() {
+        if (pauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
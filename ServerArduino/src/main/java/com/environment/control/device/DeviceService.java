@@ -3,27 +3,45 @@ package com.environment.control.device;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
-import com.environment.control.data.DeviceDataRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 @Service
 public class DeviceService {
 
     private final DeviceRepository deviceRepository;
-    private final DeviceDataRepository deviceDataRepository;
+    private final DeviceCache deviceCache;
+    private final HeartbeatTracker heartbeatTracker;
+    private final DeviceCommandService deviceCommandService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public DeviceService(DeviceRepository deviceRepository, DeviceDataRepository deviceDataRepository) {
+    public DeviceService(DeviceRepository deviceRepository, DeviceCache deviceCache, HeartbeatTracker heartbeatTracker,
+                         DeviceCommandService deviceCommandService, ApplicationEventPublisher eventPublisher) {
         this.deviceRepository = deviceRepository;
-        this.deviceDataRepository = deviceDataRepository;
+        this.deviceCache = deviceCache;
+        this.heartbeatTracker = heartbeatTracker;
+        this.deviceCommandService = deviceCommandService;
+        this.eventPublisher = eventPublisher;
     }
 
     public Optional<Device> findByDeviceId(String deviceId) {
-        return deviceRepository.findByDeviceId(deviceId);
+        return deviceCache.find(deviceId);
+    }
+
+    public Optional<DeviceSnapshot> authenticate(String deviceId, String secret) {
+        return deviceCache.snapshot(deviceId).filter(snapshot -> snapshot.matchesSecret(secret));
     }
 
     public List<Device> listDevices() {
-        return deviceRepository.findAll();
+        return deviceRepository.findByDeletedAtIsNullOrderByIdAsc();
+    }
+
+    public List<Device> listPurging() {
+        return deviceRepository.findByDeletedAtIsNotNullOrderByDeletedAtAsc();
     }
 
     public Device register(String deviceId, String secret, String name, String endpointUrl) {
@@ -35,27 +53,61 @@ public class DeviceService {
         return deviceRepository.save(device);
     }
 
-    @Transactional
     public void touch(Device device) {
-        device.setLastSeen(Instant.now());
-        deviceRepository.save(device);
+        Instant now = Instant.now();
+        device.setLastSeen(now);
+        heartbeatTracker.beat(device.getId(), now.toEpochMilli());
+    }
+
+    public Instant lastSeen(Device device) {
+        return heartbeatTracker.lastSeen(device);
     }
 
     @Transactional
     public void requestUpload(Device device) {
         device.setUploadRequested(true);
-        deviceRepository.save(device);
+        deviceRepository.markUploadRequested(device.getId());
+        deviceCommandService.queueUpload(device);
+        eventPublisher.publishEvent(new UploadRequestedEvent(device.getDeviceId()));
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void acknowledgeUpload(Device device) {
+        device.setUploadRequested(false);
+        if (deviceRepository.clearUploadRequested(device.getId()) > 0) {
+            eventPublisher.publishEvent(new DeviceChangedEvent(device.getDeviceId()));
+        }
     }
 
     @Transactional
     public void clearRequest(Device device) {
         device.setUploadRequested(false);
-        deviceRepository.save(device);
+        deviceRepository.clearUploadRequested(device.getId());
+        deviceCommandService.clearUploads(device);
+        eventPublisher.publishEvent(new DeviceChangedEvent(device.getDeviceId()));
+    }
+
+    @Transactional
+    public void changeSecret(Device device, String secret) {
+        deviceRepository.updateSecret(device.getId(), secret);
+        eventPublisher.publishEvent(new DeviceInvalidatedEvent(device.getDeviceId()));
+    }
+
+    @Transactional
+    public void changeRetention(Device device, Integer days) {
+        if (days != null && days <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Retention must be a positive number of days");
+        }
+        deviceRepository.updateRetentionDays(device.getId(), days);
+        eventPublisher.publishEvent(new DeviceChangedEvent(device.getDeviceId()));
     }
 
     @Transactional
     public void delete(Device device) {
-        deviceDataRepository.deleteByDevice(device);
-        deviceRepository.delete(device);
+        String tombstoneId = "deleted:" + device.getId() + ":" + device.getDeviceId();
+        deviceRepository.tombstone(device.getId(), tombstoneId.substring(0, Math.min(tombstoneId.length(), 255)), Instant.now());
+        heartbeatTracker.forget(device.getId());
+        deviceCommandService.clearAll(device);
+        eventPublisher.publishEvent(new DeviceInvalidatedEvent(device.getDeviceId()));
     }
 }
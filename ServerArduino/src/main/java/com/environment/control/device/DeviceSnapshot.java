@@ -0,0 +1,94 @@
+package com.environment.control.device;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+
+public final class DeviceSnapshot {
+    private final long id;
+    private final String deviceId;
+    private final String name;
+    private final String endpointUrl;
+    private final byte[] secretHash;
+    private final boolean uploadRequested;
+    private final Long lastSequenceAcknowledged;
+    private final Instant lastSeen;
+    private final Long purgedRows;
+    private final int pendingCommands;
+    private final Integer retentionDays;
+    private final long requestVersion;
+
+    private DeviceSnapshot(long id, String deviceId, String name, String endpointUrl, byte[] secretHash, boolean uploadRequested,
+                           Long lastSequenceAcknowledged, Instant lastSeen, Long purgedRows, int pendingCommands,
+                           Integer retentionDays, long requestVersion) {
+        this.id = id;
+        this.deviceId = deviceId;
+        this.name = name;
+        this.endpointUrl = endpointUrl;
+        this.secretHash = secretHash;
+        this.uploadRequested = uploadRequested;
+        this.lastSequenceAcknowledged = lastSequenceAcknowledged;
+        this.lastSeen = lastSeen;
+        this.purgedRows = purgedRows;
+        this.pendingCommands = pendingCommands;
+        this.retentionDays = retentionDays;
+        this.requestVersion = requestVersion;
+    }
+
+    static DeviceSnapshot of(Device device, long requestVersion) {
+        return new DeviceSnapshot(device.getId(), device.getDeviceId(), device.getName(), device.getEndpointUrl(),
+                hash(device.getSecret()), device.isUploadRequested(), device.getLastSequenceAcknowledged(), device.getLastSeen(),
+                device.getPurgedRows(), device.getPendingCommands(), device.getRetentionDays(), requestVersion);
+    }
+
+    DeviceSnapshot withLastSequenceAcknowledged(long sequence) {
+        if (lastSequenceAcknowledged != null && lastSequenceAcknowledged >= sequence) {
+            return this;
+        }
+        return new DeviceSnapshot(id, deviceId, name, endpointUrl, secretHash, uploadRequested, sequence, lastSeen,
+                purgedRows, pendingCommands, retentionDays, requestVersion);
+    }
+
+    public Device toDevice() {
+        Device device = new Device(id);
+        device.setDeviceId(deviceId);
+        device.setName(name);
+        device.setEndpointUrl(endpointUrl);
+        device.setUploadRequested(uploadRequested);
+        device.setLastSequenceAcknowledged(lastSequenceAcknowledged);
+        device.setLastSeen(lastSeen);
+        device.setPurgedRows(purgedRows);
+        device.setPendingCommands(pendingCommands);
+        device.setRetentionDays(retentionDays);
+        return device;
+    }
+
+    public boolean matchesSecret(String secret) {
+        return secret != null && MessageDigest.isEqual(secretHash, hash(secret));
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public long getRequestVersion() {
+        return requestVersion;
+    }
+
+    public byte[] getSecretHash() {
+        return secretHash.clone();
+    }
+
+    private static byte[] hash(String secret) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
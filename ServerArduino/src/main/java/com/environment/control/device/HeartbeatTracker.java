@@ -0,0 +1,85 @@
+package com.environment.control.device;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class HeartbeatTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(HeartbeatTracker.class);
+    private static final int FLUSH_CHUNK = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConcurrentMap<Long, Long> lastSeen = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Long> dirty = new ConcurrentHashMap<>();
+
+    public HeartbeatTracker(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void beat(long devicePk, long epochMillis) {
+        lastSeen.merge(devicePk, epochMillis, Math::max);
+        dirty.merge(devicePk, epochMillis, Math::max);
+    }
+
+    public Instant lastSeen(Device device) {
+        Long millis = lastSeen.get(device.getId());
+        if (millis == null) {
+            return device.getLastSeen();
+        }
+        Instant seen = Instant.ofEpochMilli(millis);
+        return device.getLastSeen() != null && device.getLastSeen().isAfter(seen) ? device.getLastSeen() : seen;
+    }
+
+    public void forget(long devicePk) {
+        lastSeen.remove(devicePk);
+        dirty.remove(devicePk);
+    }
+
+    @Scheduled(fixedDelayString = "${app.devices.heartbeat-flush-ms:10000}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, Long>> pending = new ArrayList<>(dirty.size());
+        for (Map.Entry<Long, Long> entry : dirty.entrySet()) {
+            pending.add(Map.entry(entry.getKey(), entry.getValue()));
+        }
+        for (int from = 0; from < pending.size(); from += FLUSH_CHUNK) {
+            List<Map.Entry<Long, Long>> chunk = pending.subList(from, Math.min(pending.size(), from + FLUSH_CHUNK));
+            try {
+                write(chunk);
+                chunk.forEach(entry -> dirty.remove(entry.getKey(), entry.getValue()));
+            } catch (RuntimeException e) {
+                log.warn("Failed to flush {} heartbeat(s), will retry: {}", chunk.size(), e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+    }
+
+    private void write(List<Map.Entry<Long, Long>> chunk) {
+        StringBuilder sql = new StringBuilder("UPDATE devices d SET last_seen = v.last_seen FROM (VALUES ");
+        Object[] args = new Object[chunk.size() * 2];
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?::bigint, to_timestamp(?::bigint / 1000.0))");
+            args[i * 2] = chunk.get(i).getKey();
+            args[i * 2 + 1] = chunk.get(i).getValue();
+        }
+        sql.append(") AS v(id, last_seen) WHERE d.id = v.id AND (d.last_seen IS NULL OR d.last_seen < v.last_seen)");
+        jdbcTemplate.update(sql.toString(), args);
+    }
+}
@@ -0,0 +1,135 @@
+package com.environment.control.device;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+
+@Component
+public class PendingRequestWaiters {
+
+    private final DeviceCache deviceCache;
+    private final ConcurrentMap<String, Set<Waiter>> waiters = new ConcurrentHashMap<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final Timer woken;
+    private final Timer timedOut;
+    private final Timer wakeLatency;
+
+    public PendingRequestWaiters(DeviceCache deviceCache, MeterRegistry meterRegistry) {
+        this.deviceCache = deviceCache;
+        Gauge.builder("device.longpoll.waiters", active, AtomicInteger::get)
+                .description("Devices currently parked on a long-poll for pending requests")
+                .register(meterRegistry);
+        this.woken = Timer.builder("device.longpoll.wait").tag("outcome", "woken")
+                .description("Time a long-poll stayed parked")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.timedOut = Timer.builder("device.longpoll.wait").tag("outcome", "timeout")
+                .description("Time a long-poll stayed parked")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.wakeLatency = Timer.builder("device.longpoll.wake.latency")
+                .description("Time from an upload request or queued command to the parked long-poll being answered")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public <T> DeferredResult<T> await(String deviceId, long timeoutMs, long seenVersion, Supplier<T> onWake, Supplier<T> onTimeout) {
+        DeferredResult<T> result = new DeferredResult<>(timeoutMs);
+        long parkedAt = System.nanoTime();
+        Waiter waiter = new Waiter(() -> {
+            result.setResult(onWake.get());
+            woken.record(System.nanoTime() - parkedAt, TimeUnit.NANOSECONDS);
+        });
+        result.onTimeout(() -> {
+            if (waiter.claim()) {
+                result.setResult(onTimeout.get());
+                timedOut.record(System.nanoTime() - parkedAt, TimeUnit.NANOSECONDS);
+            }
+        });
+        result.onCompletion(() -> remove(deviceId, waiter));
+        waiters.compute(deviceId, (id, parked) -> {
+            Set<Waiter> set = parked != null ? parked : ConcurrentHashMap.newKeySet();
+            set.add(waiter);
+            return set;
+        });
+        active.incrementAndGet();
+        if (deviceCache.requestVersion(deviceId) != seenVersion && waiter.claim()) {
+            waiter.onWake.run();
+        }
+        return result;
+    }
+
+    public long requestVersion(String deviceId) {
+        return deviceCache.requestVersion(deviceId);
+    }
+
+    public int getActiveWaiters() {
+        return active.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUploadRequested(UploadRequestedEvent event) {
+        if (requested(event.getDeviceId()) > 0) {
+            wakeLatency.record(System.nanoTime() - event.getRequestedAtNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommandQueued(CommandQueuedEvent event) {
+        if (requested(event.getDeviceId()) > 0) {
+            wakeLatency.record(System.nanoTime() - event.getQueuedAtNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public int requested(String deviceId) {
+        deviceCache.requested(deviceId);
+        return wake(deviceId);
+    }
+
+    private int wake(String deviceId) {
+        Set<Waiter> parked = waiters.get(deviceId);
+        if (parked == null) {
+            return 0;
+        }
+        int woke = 0;
+        for (Waiter waiter : parked) {
+            if (waiter.claim()) {
+                waiter.onWake.run();
+                woke++;
+            }
+        }
+        return woke;
+    }
+
+    private void remove(String deviceId, Waiter waiter) {
+        waiters.computeIfPresent(deviceId, (id, parked) -> {
+            if (parked.remove(waiter)) {
+                active.decrementAndGet();
+            }
+            return parked.isEmpty() ? null : parked;
+        });
+    }
+
+    private static final class Waiter {
+        private final Runnable onWake;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private Waiter(Runnable onWake) {
+            this.onWake = onWake;
+        }
+
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.environment.control.device;
+
+public class UploadRequestedEvent {
+    private final String deviceId;
+    private final long requestedAtNanos = System.nanoTime();
+
+    public UploadRequestedEvent(String deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public long getRequestedAtNanos() {
+        return requestedAtNanos;
+    }
+}
@@ -0,0 +1,141 @@
+package com.environment.control.export;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+class ColumnarExportWriter implements ExportWriter {
+
+    static final String MEDIA_TYPE = "application/vnd.environment-control.columns+gzip";
+
+    private static final byte[] MAGIC = {'E', 'C', 'O', 'L'};
+    private static final byte FORMAT_VERSION = 1;
+    private static final int BLOCK = 1;
+    private static final int END = 0;
+
+    private final GZIPOutputStream gzip;
+    private final DataOutputStream out;
+    private final int blockRows;
+    private final long[] sequences;
+    private final long[] createdAt;
+    private final long[] recordedAt;
+    private final float[][] sensors;
+    private String deviceId;
+    private int rows;
+    private boolean started;
+
+    ColumnarExportWriter(OutputStream target, int blockRows) {
+        try {
+            this.gzip = new GZIPOutputStream(target, 64 * 1024);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open gzip stream", e);
+        }
+        this.out = new DataOutputStream(gzip);
+        this.blockRows = Math.max(1, blockRows);
+        this.sequences = new long[this.blockRows];
+        this.createdAt = new long[this.blockRows];
+        this.recordedAt = new long[this.blockRows];
+        this.sensors = new float[4][this.blockRows];
+    }
+
+    @Override
+    public void beginDevice(String deviceId) throws IOException {
+        writeHeader();
+        flushBlock();
+        this.deviceId = deviceId;
+    }
+
+    @Override
+    public void row(long sequenceNumber, long createdAtMillis, long recordedAtMillis,
+                    float mq135, float temperature, float humidity, float distance) throws IOException {
+        sequences[rows] = sequenceNumber;
+        createdAt[rows] = createdAtMillis;
+        recordedAt[rows] = recordedAtMillis;
+        sensors[0][rows] = mq135;
+        sensors[1][rows] = temperature;
+        sensors[2][rows] = humidity;
+        sensors[3][rows] = distance;
+        if (++rows == blockRows) {
+            flushBlock();
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writeHeader();
+        flushBlock();
+        out.writeByte(END);
+        out.flush();
+        gzip.finish();
+    }
+
+    private void writeHeader() throws IOException {
+        if (!started) {
+            out.write(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            started = true;
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        out.writeByte(BLOCK);
+        out.writeUTF(deviceId);
+        writeVarLong(rows);
+        writeDeltas(sequences);
+        writeDeltas(createdAt);
+        byte[] present = new byte[(rows + 7) / 8];
+        for (int i = 0; i < rows; i++) {
+            if (recordedAt[i] != Long.MIN_VALUE) {
+                present[i >> 3] |= (byte) (1 << (i & 7));
+            }
+        }
+        out.write(present);
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            if (recordedAt[i] != Long.MIN_VALUE) {
+                writeVarLong(zigZag(recordedAt[i] - previous));
+                previous = recordedAt[i];
+            }
+        }
+        for (float[] column : sensors) {
+            Arrays.fill(present, (byte) 0);
+            for (int i = 0; i < rows; i++) {
+                if (!Float.isNaN(column[i])) {
+                    present[i >> 3] |= (byte) (1 << (i & 7));
+                }
+            }
+            out.write(present);
+            for (int i = 0; i < rows; i++) {
+                if (!Float.isNaN(column[i])) {
+                    out.writeFloat(column[i]);
+                }
+            }
+        }
+        rows = 0;
+    }
+
+    private void writeDeltas(long[] column) throws IOException {
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            writeVarLong(zigZag(column[i] - previous));
+            previous = column[i];
+        }
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
@@ -0,0 +1,70 @@
+package com.environment.control.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+class CsvExportWriter implements ExportWriter {
+
+    private static final String HEADER = "device_id,sequence_number,created_at,recorded_at,mq135,temperature,humidity,distance\n";
+
+    private final Writer writer;
+    private String deviceId;
+
+    CsvExportWriter(OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    @Override
+    public void beginDevice(String deviceId) throws IOException {
+        if (this.deviceId == null) {
+            writer.write(HEADER);
+        }
+        this.deviceId = quote(deviceId);
+    }
+
+    @Override
+    public void row(long sequenceNumber, long createdAtMillis, long recordedAtMillis,
+                    float mq135, float temperature, float humidity, float distance) throws IOException {
+        writer.write(deviceId);
+        writer.write(',');
+        writer.write(Long.toString(sequenceNumber));
+        writer.write(',');
+        writer.write(Instant.ofEpochMilli(createdAtMillis).toString());
+        writer.write(',');
+        if (recordedAtMillis != Long.MIN_VALUE) {
+            writer.write(Instant.ofEpochMilli(recordedAtMillis).toString());
+        }
+        writeValue(mq135);
+        writeValue(temperature);
+        writeValue(humidity);
+        writeValue(distance);
+        writer.write('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (deviceId == null) {
+            writer.write(HEADER);
+        }
+        writer.flush();
+    }
+
+    private void writeValue(float value) throws IOException {
+        writer.write(',');
+        if (!Float.isNaN(value)) {
+            writer.write(Float.toString(value));
+        }
+    }
+
+    private static String quote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,129 @@
+package com.environment.control.export;
+
+import com.environment.control.device.Device;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+@Service
+public class DeviceDataExporter {
+
+    private final ExportScanner exportScanner;
+    private final Map<ExportFormat, Timer> completedTimers = new EnumMap<>(ExportFormat.class);
+    private final Map<ExportFormat, Timer> failedTimers = new EnumMap<>(ExportFormat.class);
+    private final Semaphore running;
+    private final int blockRows;
+    private final Counter exportedRows;
+
+    public DeviceDataExporter(ExportScanner exportScanner,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.export.max-concurrent:2}") int maxConcurrent,
+                              @Value("${app.export.block-rows:8192}") int blockRows) {
+        this.exportScanner = exportScanner;
+        this.running = new Semaphore(Math.max(1, maxConcurrent));
+        this.blockRows = blockRows;
+        this.exportedRows = Counter.builder("export.rows")
+                .description("Readings written by history exports")
+                .register(meterRegistry);
+        for (ExportFormat format : ExportFormat.values()) {
+            completedTimers.put(format, exportTimer(meterRegistry, format, "completed"));
+            failedTimers.put(format, exportTimer(meterRegistry, format, "failed"));
+        }
+    }
+
+    private static Timer exportTimer(MeterRegistry meterRegistry, ExportFormat format, String outcome) {
+        return Timer.builder("export.duration")
+                .tag("format", format.name().toLowerCase(Locale.ROOT))
+                .tag("outcome", outcome)
+                .description("Time to stream one history export")
+                .register(meterRegistry);
+    }
+
+    public Slot acquire() {
+        if (!running.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many exports running");
+        }
+        return new Slot(running);
+    }
+
+    public void export(Slot slot, List<Device> devices, Instant from, Instant to, ExportFormat format, OutputStream out)
+            throws IOException {
+        long started = System.nanoTime();
+        Map<ExportFormat, Timer> timers = failedTimers;
+        try (slot) {
+            ExportWriter writer = new CancellableWriter(format.open(out, blockRows), slot);
+            for (Device device : devices) {
+                writer.beginDevice(device.getDeviceId());
+                exportedRows.increment(exportScanner.scan(device.getId(), from, to, writer));
+            }
+            writer.finish();
+            timers = completedTimers;
+        } finally {
+            timers.get(format).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public static final class Slot implements AutoCloseable {
+
+        private final Semaphore running;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile boolean cancelled;
+
+        private Slot(Semaphore running) {
+            this.running = running;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                running.release();
+            }
+        }
+    }
+
+    private record CancellableWriter(ExportWriter delegate, Slot slot) implements ExportWriter {
+
+        @Override
+        public void beginDevice(String deviceId) throws IOException {
+            checkCancelled();
+            delegate.beginDevice(deviceId);
+        }
+
+        @Override
+        public void row(long sequenceNumber, long createdAtMillis, long recordedAtMillis,
+                        float mq135, float temperature, float humidity, float distance) throws IOException {
+            checkCancelled();
+            delegate.row(sequenceNumber, createdAtMillis, recordedAtMillis, mq135, temperature, humidity, distance);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            checkCancelled();
+            delegate.finish();
+        }
+
+        private void checkCancelled() throws IOException {
+            if (slot.cancelled) {
+                throw new IOException("Export cancelled");
+            }
+        }
+    }
+}
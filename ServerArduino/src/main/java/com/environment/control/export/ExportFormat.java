@@ -0,0 +1,33 @@
+package com.environment.control.export;
+
+import java.io.OutputStream;
+import java.util.Locale;
+
+public enum ExportFormat {
+    CSV("text/csv", "csv"),
+    COLUMNAR(ColumnarExportWriter.MEDIA_TYPE, "ecol.gz");
+
+    private final String mediaType;
+    private final String extension;
+
+    ExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static ExportFormat parse(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    ExportWriter open(OutputStream out, int blockRows) {
+        return this == CSV ? new CsvExportWriter(out) : new ColumnarExportWriter(out, blockRows);
+    }
+}
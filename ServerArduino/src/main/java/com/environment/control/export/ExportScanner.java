@@ -0,0 +1,91 @@
+package com.environment.control.export;
+
+import com.environment.control.cold.ColdBlock;
+import com.environment.control.cold.ColdCursor;
+import com.environment.control.cold.ColdStore;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public class ExportScanner {
+
+    private static final String SCAN_RANGE = """
+            SELECT sequence_number, (extract(epoch FROM created_at) * 1000)::bigint, (extract(epoch FROM recorded_at) * 1000)::bigint,
+                   mq135, temperature, humidity, distance
+            FROM device_data
+            WHERE device_id = ? AND created_at >= to_timestamp(? / 1000.0) AND created_at < to_timestamp(? / 1000.0)
+            ORDER BY created_at, sequence_number
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ColdStore coldStore;
+    private final int fetchSize;
+
+    public ExportScanner(JdbcTemplate jdbcTemplate, ColdStore coldStore, @Value("${app.export.fetch-size:10000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.coldStore = coldStore;
+        this.fetchSize = fetchSize;
+    }
+
+    @Transactional(readOnly = true)
+    public long scan(long devicePk, Instant from, Instant to, ExportWriter writer) throws IOException {
+        long[] rows = new long[1];
+        ColdCursor cold = coldStore.scan(devicePk, from, to);
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement statement = con.prepareStatement(SCAN_RANGE, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                statement.setLong(1, devicePk);
+                statement.setLong(2, from.toEpochMilli());
+                statement.setLong(3, to.toEpochMilli());
+                return statement;
+            }, (ResultSet rs) -> {
+                long recordedAt = rs.getLong(3);
+                if (rs.wasNull()) {
+                    recordedAt = Long.MIN_VALUE;
+                }
+                long sequence = rs.getLong(1);
+                long createdAt = rs.getLong(2);
+                try {
+                    while (cold.isBefore(createdAt, sequence)) {
+                        emit(cold, writer);
+                        rows[0]++;
+                    }
+                    writer.row(sequence, createdAt, recordedAt,
+                            readFloat(rs, 4), readFloat(rs, 5), readFloat(rs, 6), readFloat(rs, 7));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        while (cold.hasRow()) {
+            emit(cold, writer);
+            rows[0]++;
+        }
+        return rows[0];
+    }
+
+    private static void emit(ColdCursor cold, ExportWriter writer) throws IOException {
+        ColdBlock block = cold.block();
+        int row = cold.row();
+        writer.row(block.sequence(row), block.createdAt(row), block.recordedAt(row),
+                block.mq135(row), block.temperature(row), block.humidity(row), block.distance(row));
+        cold.next();
+    }
+
+    private static float readFloat(ResultSet rs, int column) throws SQLException {
+        float value = rs.getFloat(column);
+        return rs.wasNull() ? Float.NaN : value;
+    }
+}
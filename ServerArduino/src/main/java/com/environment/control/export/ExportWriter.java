@@ -0,0 +1,13 @@
+package com.environment.control.export;
+
+import java.io.IOException;
+
+public interface ExportWriter {
+
+    void beginDevice(String deviceId) throws IOException;
+
+    void row(long sequenceNumber, long createdAtMillis, long recordedAtMillis,
+             float mq135, float temperature, float humidity, float distance) throws IOException;
+
+    void finish() throws IOException;
+}
@@ -0,0 +1,182 @@
+package com.environment.control.hot;
+
+import com.environment.control.chart.ReadingHandler;
+
+public class HotSeries {
+
+    static final int BYTES_PER_READING = Long.BYTES * 2 + Float.BYTES * 4;
+
+    private final int capacity;
+    private final long[] times;
+    private final long[] sequences;
+    private final float[] mq135;
+    private final float[] humidity;
+    private final float[] temperature;
+    private final float[] distance;
+    private int start;
+    private int size;
+    private long coveredFrom = Long.MAX_VALUE;
+    private boolean warmed;
+    private boolean warming;
+
+    public HotSeries(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.times = new long[this.capacity];
+        this.sequences = new long[this.capacity];
+        this.mq135 = new float[this.capacity];
+        this.humidity = new float[this.capacity];
+        this.temperature = new float[this.capacity];
+        this.distance = new float[this.capacity];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isWarmed() {
+        return warmed;
+    }
+
+    public synchronized boolean beginWarm() {
+        if (warmed || warming) {
+            return false;
+        }
+        warming = true;
+        return true;
+    }
+
+    public synchronized void abandonWarm() {
+        warming = false;
+    }
+
+    public synchronized long getCoveredFrom() {
+        return coveredFrom;
+    }
+
+    public synchronized void append(long time, long sequence, float mq135Value, float humidityValue,
+                                    float temperatureValue, float distanceValue, long windowStart) {
+        trimBefore(windowStart);
+        int position = size;
+        while (position > 0 && times[slot(position - 1)] > time) {
+            position--;
+        }
+        for (int i = position - 1; i >= 0 && times[slot(i)] == time; i--) {
+            if (sequences[slot(i)] == sequence) {
+                return;
+            }
+        }
+        if (warmed && time < coveredFrom) {
+            return;
+        }
+        if (size == capacity) {
+            if (position == 0) {
+                coveredFrom = time + 1;
+                return;
+            }
+            evictOldest();
+            position--;
+        }
+        for (int i = size; i > position; i--) {
+            copy(slot(i - 1), slot(i));
+        }
+        int target = slot(position);
+        times[target] = time;
+        sequences[target] = sequence;
+        mq135[target] = mq135Value;
+        humidity[target] = humidityValue;
+        temperature[target] = temperatureValue;
+        distance[target] = distanceValue;
+        size++;
+    }
+
+    public synchronized void warm(HotSeries loaded, long windowStart) {
+        warming = false;
+        if (warmed) {
+            return;
+        }
+        HotSeries recent = new HotSeries(Math.max(1, size));
+        for (int i = 0; i < size; i++) {
+            int s = slot(i);
+            recent.append(times[s], sequences[s], mq135[s], humidity[s], temperature[s], distance[s], Long.MIN_VALUE);
+        }
+        start = 0;
+        size = 0;
+        for (int i = 0; i < loaded.size; i++) {
+            int s = loaded.slot(i);
+            copyFrom(loaded, s, i);
+            size++;
+        }
+        coveredFrom = loaded.size == capacity ? times[0] + 1 : windowStart;
+        warmed = true;
+        for (int i = 0; i < recent.size; i++) {
+            append(recent.times[i], recent.sequences[i], recent.mq135[i], recent.humidity[i],
+                    recent.temperature[i], recent.distance[i], windowStart);
+        }
+    }
+
+    public synchronized boolean scan(long from, long to, ReadingHandler handler) {
+        if (!warmed || from < coveredFrom) {
+            return false;
+        }
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[slot(mid)] < from) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < size; i++) {
+            int s = slot(i);
+            if (times[s] >= to) {
+                break;
+            }
+            handler.accept(times[s], mq135[s], humidity[s], temperature[s], distance[s]);
+        }
+        return true;
+    }
+
+    private void trimBefore(long windowStart) {
+        while (size > 0 && times[start] < windowStart) {
+            start = (start + 1) % capacity;
+            size--;
+        }
+        if (warmed && coveredFrom < windowStart) {
+            coveredFrom = windowStart;
+        }
+    }
+
+    private void evictOldest() {
+        coveredFrom = Math.max(coveredFrom == Long.MAX_VALUE ? Long.MIN_VALUE : coveredFrom, times[start] + 1);
+        start = (start + 1) % capacity;
+        size--;
+    }
+
+    private int slot(int index) {
+        return (start + index) % capacity;
+    }
+
+    private void copy(int from, int to) {
+        times[to] = times[from];
+        sequences[to] = sequences[from];
+        mq135[to] = mq135[from];
+        humidity[to] = humidity[from];
+        temperature[to] = temperature[from];
+        distance[to] = distance[from];
+    }
+
+    private void copyFrom(HotSeries other, int from, int to) {
+        times[to] = other.times[from];
+        sequences[to] = other.sequences[from];
+        mq135[to] = other.mq135[from];
+        humidity[to] = other.humidity[from];
+        temperature[to] = other.temperature[from];
+        distance[to] = other.distance[from];
+    }
+}
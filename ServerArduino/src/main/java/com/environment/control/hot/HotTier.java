@@ -0,0 +1,141 @@
+package com.environment.control.hot;
+
+import com.environment.control.chart.ReadingHandler;
+import com.environment.control.data.DeviceData;
+import com.environment.control.device.Device;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+public class HotTier {
+
+    private static final String LOAD_RECENT = """
+            SELECT * FROM (
+                SELECT (extract(epoch FROM created_at) * 1000)::bigint AS created_at_ms, sequence_number,
+                       mq135, humidity, temperature, distance
+                FROM device_data
+                WHERE device_id = ? AND created_at >= to_timestamp(? / 1000.0)
+                ORDER BY created_at DESC, sequence_number DESC
+                LIMIT ?
+            ) recent
+            ORDER BY created_at_ms, sequence_number
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int capacity;
+    private final long windowMs;
+    private final Cache<Long, HotSeries> series;
+    private final Counter hits;
+    private final Counter misses;
+
+    public HotTier(JdbcTemplate jdbcTemplate,
+                   MeterRegistry meterRegistry,
+                   @Value("${app.hot.enabled:true}") boolean enabled,
+                   @Value("${app.hot.capacity:8192}") int capacity,
+                   @Value("${app.hot.window-ms:86400000}") long windowMs,
+                   @Value("${app.hot.memory-budget-bytes:67108864}") long memoryBudgetBytes,
+                   @Value("${app.hot.idle-ms:1800000}") long idleMs,
+                   @Value("${app.hot.max-age-ms:3600000}") long maxAgeMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.capacity = Math.max(1, capacity);
+        this.windowMs = windowMs;
+        this.series = Caffeine.newBuilder()
+                .maximumWeight(memoryBudgetBytes)
+                .weigher((Long devicePk, HotSeries hot) -> hot.getCapacity() * HotSeries.BYTES_PER_READING)
+                .expireAfterAccess(Duration.ofMillis(idleMs))
+                .expireAfterWrite(Duration.ofMillis(maxAgeMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, series, "hotSeries");
+        this.hits = Counter.builder("hot.reads").tag("result", "hit")
+                .description("Recent-window reads answered from memory or sent to the database")
+                .register(meterRegistry);
+        this.misses = Counter.builder("hot.reads").tag("result", "miss")
+                .description("Recent-window reads answered from memory or sent to the database")
+                .register(meterRegistry);
+    }
+
+    public void append(Device device, List<DeviceData> records) {
+        if (!enabled || records.isEmpty()) {
+            return;
+        }
+        HotSeries hot = series.getIfPresent(device.getId());
+        if (hot == null) {
+            return;
+        }
+        long windowStart = System.currentTimeMillis() - windowMs;
+        for (DeviceData data : records) {
+            hot.append(data.getCreatedAt().toEpochMilli(), data.getSequenceNumber(), orNaN(data.getMq135()),
+                    orNaN(data.getHumidity()), orNaN(data.getTemperature()), orNaN(data.getDistance()), windowStart);
+        }
+    }
+
+    public boolean holds(long devicePk) {
+        return enabled && series.getIfPresent(devicePk) != null;
+    }
+
+    public void evict(long devicePk) {
+        series.invalidate(devicePk);
+    }
+
+    public void evictAll() {
+        series.invalidateAll();
+    }
+
+    public boolean scan(long devicePk, long from, long to, ReadingHandler handler) {
+        long windowStart = System.currentTimeMillis() - windowMs;
+        if (!enabled || from < windowStart) {
+            return false;
+        }
+        HotSeries hot = series.get(devicePk, pk -> new HotSeries(capacity));
+        if (hot.beginWarm()) {
+            boolean warmed = false;
+            try {
+                hot.warm(load(devicePk, windowStart), windowStart);
+                warmed = true;
+            } finally {
+                if (!warmed) {
+                    hot.abandonWarm();
+                }
+            }
+        }
+        boolean served = hot.scan(from, to, handler);
+        (served ? hits : misses).increment();
+        return served;
+    }
+
+    private HotSeries load(long devicePk, long windowStart) {
+        HotSeries loaded = new HotSeries(capacity);
+        jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement(LOAD_RECENT);
+            statement.setLong(1, devicePk);
+            statement.setLong(2, windowStart);
+            statement.setInt(3, capacity);
+            return statement;
+        }, (ResultSet rs) -> loaded.append(rs.getLong(1), rs.getLong(2), readFloat(rs, 3), readFloat(rs, 4),
+                readFloat(rs, 5), readFloat(rs, 6), Long.MIN_VALUE));
+        return loaded;
+    }
+
+    private static float readFloat(ResultSet rs, int column) throws SQLException {
+        float value = rs.getFloat(column);
+        return rs.wasNull() ? Float.NaN : value;
+    }
+
+    private static float orNaN(Float value) {
+        return value != null ? value : Float.NaN;
+    }
+}
@@ -0,0 +1,345 @@
+package com.environment.control.journal;
+
+import com.environment.control.data.DeviceData;
+import com.environment.control.data.SequenceTracker;
+import com.environment.control.device.Device;
+import com.environment.control.device.DeviceCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class IngestJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestJournal.class);
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String QUARANTINE_SUFFIX = ".corrupt";
+    private static final int ENTRY_HEADER_BYTES = Integer.BYTES * 2;
+    private static final int RECORD_FIXED_BYTES = Long.BYTES * 3 + Float.BYTES * 4 + Integer.BYTES;
+    private static final byte FORMAT_VERSION = 1;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long segmentSizeBytes;
+    private final SequenceTracker sequenceTracker;
+    private final DeviceCache deviceCache;
+    private final BlockingQueue<PendingAppend> queue = new LinkedBlockingQueue<>();
+    private final Object queueLock = new Object();
+
+    private FileChannel activeChannel;
+    private Path activeSegment;
+    private long nextSegmentNumber;
+    private Thread writer;
+    private volatile boolean running;
+
+    public IngestJournal(SequenceTracker sequenceTracker,
+                         DeviceCache deviceCache,
+                         @Value("${app.ingest.journal.enabled:false}") boolean enabled,
+                         @Value("${app.ingest.journal.directory:data/journal}") String directory,
+                         @Value("${app.ingest.journal.segment-size-bytes:67108864}") long segmentSizeBytes) {
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentSizeBytes = segmentSizeBytes;
+        this.sequenceTracker = sequenceTracker;
+        this.deviceCache = deviceCache;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        List<Path> existing = listSegments();
+        nextSegmentNumber = existing.isEmpty() ? 0 : segmentNumber(existing.get(existing.size() - 1)) + 1;
+        if (!existing.isEmpty()) {
+            log.info("Found {} unflushed journal segment(s) in {}", existing.size(), directory);
+        }
+        openNewSegment();
+        running = true;
+        writer = new Thread(this::writeLoop, "ingest-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void close() throws IOException, InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        writer.join();
+        synchronized (this) {
+            activeChannel.close();
+        }
+    }
+
+    public long append(Device device, List<DeviceData> records) {
+        long maxSequence = device.getLastSequenceAcknowledged() != null ? device.getLastSequenceAcknowledged() : -1;
+        List<DeviceData> valid = new ArrayList<>(records.size());
+        for (DeviceData data : records) {
+            if (data.getSequenceNumber() != null && data.hasReading()) {
+                maxSequence = Math.max(maxSequence, data.getSequenceNumber());
+                valid.add(data);
+            }
+        }
+        valid = sequenceTracker.dropSeen(device, valid);
+        if (valid.isEmpty()) {
+            return maxSequence;
+        }
+        PendingAppend pending = new PendingAppend(encode(device.getId(), valid));
+        synchronized (queueLock) {
+            if (!running) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            queue.add(pending);
+        }
+        try {
+            pending.done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for journal append", e);
+        } catch (ExecutionException e) {
+            throw new UncheckedIOException("Journal append failed", (IOException) e.getCause());
+        }
+        device.setLastSequenceAcknowledged(maxSequence);
+        deviceCache.acknowledged(device.getDeviceId(), maxSequence);
+        return maxSequence;
+    }
+
+    public synchronized List<Path> sealActiveSegment() throws IOException {
+        if (activeChannel.size() > 0) {
+            activeChannel.close();
+            openNewSegment();
+        }
+        List<Path> sealed = listSegments();
+        sealed.remove(activeSegment);
+        return sealed;
+    }
+
+    public boolean read(Path segment, Consumer<JournalEntry> consumer) throws IOException {
+        long size = Files.size(segment);
+        long remaining = size;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment), 65536))) {
+            while (remaining >= ENTRY_HEADER_BYTES) {
+                long offset = size - remaining;
+                int length = in.readInt();
+                int checksum = in.readInt();
+                remaining -= ENTRY_HEADER_BYTES;
+                if (length <= 0 || length > remaining) {
+                    log.warn("Truncated entry at offset {} in {}, stopping there", offset, segment);
+                    return false;
+                }
+                byte[] body = new byte[length];
+                in.readFully(body);
+                remaining -= length;
+                CRC32C crc = new CRC32C();
+                crc.update(body, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("Checksum mismatch at offset {} in {}, stopping there", offset, segment);
+                    return false;
+                }
+                consumer.accept(decode(ByteBuffer.wrap(body)));
+            }
+        }
+        return remaining == 0;
+    }
+
+    public void delete(Path segment) throws IOException {
+        Files.deleteIfExists(segment);
+    }
+
+    public Path quarantine(Path segment) throws IOException {
+        return Files.move(segment, segment.resolveSibling(segment.getFileName() + QUARANTINE_SUFFIX));
+    }
+
+    private void writeLoop() {
+        List<PendingAppend> group = new ArrayList<>();
+        while (running) {
+            try {
+                PendingAppend next = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (next == null) {
+                    continue;
+                }
+                group.add(next);
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(group);
+            try {
+                writeGroup(group);
+                group.forEach(pending -> pending.done.complete(null));
+            } catch (IOException e) {
+                log.error("Journal write failed", e);
+                group.forEach(pending -> pending.done.completeExceptionally(e));
+            }
+            group.clear();
+        }
+        synchronized (queueLock) {
+            queue.drainTo(group);
+        }
+        group.forEach(pending -> pending.done.completeExceptionally(new IOException("Journal closed")));
+    }
+
+    private synchronized void writeGroup(List<PendingAppend> group) throws IOException {
+        ByteBuffer[] buffers = new ByteBuffer[group.size()];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = group.get(i).entry;
+        }
+        long start = activeChannel.position();
+        try {
+            while (hasRemaining(buffers)) {
+                activeChannel.write(buffers);
+            }
+            activeChannel.force(false);
+        } catch (IOException e) {
+            activeChannel.truncate(start);
+            throw e;
+        }
+        if (activeChannel.size() >= segmentSizeBytes) {
+            activeChannel.close();
+            openNewSegment();
+        }
+    }
+
+    private boolean hasRemaining(ByteBuffer[] buffers) {
+        for (ByteBuffer buffer : buffers) {
+            if (buffer.hasRemaining()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void openNewSegment() throws IOException {
+        activeSegment = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSegmentNumber++, SEGMENT_SUFFIX));
+        activeChannel = FileChannel.open(activeSegment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return new ArrayList<>(files
+                    .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList());
+        }
+    }
+
+    private long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    static ByteBuffer encode(long devicePk, List<DeviceData> records) {
+        List<byte[]> payloads = new ArrayList<>(records.size());
+        int bodyLength = 1 + Long.BYTES + Integer.BYTES;
+        for (DeviceData data : records) {
+            byte[] payload = data.getPayload() != null ? data.getPayload().getBytes(StandardCharsets.UTF_8) : null;
+            payloads.add(payload);
+            bodyLength += RECORD_FIXED_BYTES + (payload != null ? payload.length : 0);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(ENTRY_HEADER_BYTES + bodyLength);
+        buffer.position(ENTRY_HEADER_BYTES);
+        buffer.put(FORMAT_VERSION);
+        buffer.putLong(devicePk);
+        buffer.putInt(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            DeviceData data = records.get(i);
+            byte[] payload = payloads.get(i);
+            buffer.putLong(data.getSequenceNumber());
+            buffer.putLong(data.getCreatedAt().toEpochMilli());
+            buffer.putLong(data.getRecordedAt() != null ? data.getRecordedAt().toEpochMilli() : Long.MIN_VALUE);
+            buffer.putFloat(orNaN(data.getMq135()));
+            buffer.putFloat(orNaN(data.getTemperature()));
+            buffer.putFloat(orNaN(data.getHumidity()));
+            buffer.putFloat(orNaN(data.getDistance()));
+            buffer.putInt(payload != null ? payload.length : -1);
+            if (payload != null) {
+                buffer.put(payload);
+            }
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), ENTRY_HEADER_BYTES, bodyLength);
+        buffer.putInt(0, bodyLength);
+        buffer.putInt(Integer.BYTES, (int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    private static JournalEntry decode(ByteBuffer body) {
+        byte version = body.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalStateException("Unsupported journal entry format " + version);
+        }
+        long devicePk = body.getLong();
+        int count = body.getInt();
+        List<DeviceData> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            DeviceData data = new DeviceData();
+            data.setSequenceNumber(body.getLong());
+            data.setCreatedAt(Instant.ofEpochMilli(body.getLong()));
+            long recordedAt = body.getLong();
+            data.setRecordedAt(recordedAt != Long.MIN_VALUE ? Instant.ofEpochMilli(recordedAt) : null);
+            data.setMq135(orNull(body.getFloat()));
+            data.setTemperature(orNull(body.getFloat()));
+            data.setHumidity(orNull(body.getFloat()));
+            data.setDistance(orNull(body.getFloat()));
+            int payloadLength = body.getInt();
+            if (payloadLength >= 0) {
+                byte[] payload = new byte[payloadLength];
+                body.get(payload);
+                data.setPayload(new String(payload, StandardCharsets.UTF_8));
+            }
+            records.add(data);
+        }
+        return new JournalEntry(devicePk, records);
+    }
+
+    private static float orNaN(Float value) {
+        return value != null ? value : Float.NaN;
+    }
+
+    private static Float orNull(float value) {
+        return Float.isNaN(value) ? null : value;
+    }
+
+    private static final class PendingAppend {
+        private final ByteBuffer entry;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private PendingAppend(ByteBuffer entry) {
+            this.entry = entry;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.environment.control.journal;
+
+import com.environment.control.api.PendingCommand;
+import com.environment.control.device.Device;
+import com.environment.control.device.DeviceCommandService;
+import com.environment.control.device.DeviceCommandType;
+import com.environment.control.device.DeviceService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+@Component
+public class JournalAckBookkeeper {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalAckBookkeeper.class);
+
+    private final DeviceService deviceService;
+    private final DeviceCommandService deviceCommandService;
+    private final ThreadPoolExecutor executor;
+    private final Counter dropped;
+    private final Counter failed;
+
+    public JournalAckBookkeeper(DeviceService deviceService,
+                                DeviceCommandService deviceCommandService,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.ingest.journal.bookkeeping-queue-size:10000}") int queueSize) {
+        this.deviceService = deviceService;
+        this.deviceCommandService = deviceCommandService;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "journal-bookkeeping");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.dropped = Counter.builder("journal.bookkeeping").tag("result", "dropped")
+                .description("Upload and command acknowledgements deferred from journaled acks that were not applied")
+                .register(meterRegistry);
+        this.failed = Counter.builder("journal.bookkeeping").tag("result", "failed")
+                .description("Upload and command acknowledgements deferred from journaled acks that were not applied")
+                .register(meterRegistry);
+    }
+
+    public void submit(Device device, List<Long> ackCommands) {
+        try {
+            executor.execute(() -> apply(device, ackCommands));
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+        }
+    }
+
+    public List<PendingCommand> pending(Device device, List<Long> ackCommands) {
+        try {
+            return deviceCommandService.pending(device, false).stream()
+                    .filter(command -> !DeviceCommandType.UPLOAD_NOW.name().equals(command.getType()))
+                    .filter(command -> ackCommands == null || !ackCommands.contains(command.getId()))
+                    .toList();
+        } catch (DataAccessException e) {
+            return List.of();
+        }
+    }
+
+    private void apply(Device device, List<Long> ackCommands) {
+        try {
+            deviceCommandService.acknowledge(device, ackCommands);
+            if (device.isUploadRequested()) {
+                deviceService.acknowledgeUpload(device);
+            }
+            deviceCommandService.completeUploads(device);
+        } catch (DataAccessException e) {
+            failed.increment();
+            log.warn("Could not record acknowledgements for device {}: {}", device.getDeviceId(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
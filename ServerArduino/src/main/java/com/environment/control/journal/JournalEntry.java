@@ -0,0 +1,22 @@
+package com.environment.control.journal;
+
+import com.environment.control.data.DeviceData;
+import java.util.List;
+
+public class JournalEntry {
+    private final long devicePk;
+    private final List<DeviceData> records;
+
+    public JournalEntry(long devicePk, List<DeviceData> records) {
+        this.devicePk = devicePk;
+        this.records = records;
+    }
+
+    public long getDevicePk() {
+        return devicePk;
+    }
+
+    public List<DeviceData> getRecords() {
+        return records;
+    }
+}
@@ -0,0 +1,91 @@
+package com.environment.control.journal;
+
+import com.environment.control.data.DataIngestionService;
+import com.environment.control.data.DeviceData;
+import com.environment.control.device.Device;
+import com.environment.control.device.DeviceRepository;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class JournalFlusher {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalFlusher.class);
+
+    private final IngestJournal journal;
+    private final DataIngestionService dataIngestionService;
+    private final DeviceRepository deviceRepository;
+    private final int batchSize;
+
+    public JournalFlusher(IngestJournal journal,
+                          DataIngestionService dataIngestionService,
+                          DeviceRepository deviceRepository,
+                          @Value("${app.ingest.journal.flush-batch-size:5000}") int batchSize) {
+        this.journal = journal;
+        this.dataIngestionService = dataIngestionService;
+        this.deviceRepository = deviceRepository;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void replay() {
+        flush();
+    }
+
+    @Scheduled(fixedDelayString = "${app.ingest.journal.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        if (!journal.isEnabled()) {
+            return;
+        }
+        try {
+            for (Path segment : journal.sealActiveSegment()) {
+                if (flushSegment(segment)) {
+                    journal.delete(segment);
+                } else {
+                    log.warn("Journal segment {} was only partly readable; kept as {}", segment, journal.quarantine(segment));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Journal flush failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    private boolean flushSegment(Path segment) throws IOException {
+        Map<Long, List<DeviceData>> pending = new LinkedHashMap<>();
+        boolean complete = journal.read(segment, entry -> {
+            List<DeviceData> records = pending.computeIfAbsent(entry.getDevicePk(), pk -> new ArrayList<>());
+            records.addAll(entry.getRecords());
+            if (records.size() >= batchSize) {
+                write(entry.getDevicePk(), records);
+                records.clear();
+            }
+        });
+        pending.forEach((devicePk, records) -> {
+            if (!records.isEmpty()) {
+                write(devicePk, records);
+            }
+        });
+        return complete;
+    }
+
+    private void write(long devicePk, List<DeviceData> records) {
+        Optional<Device> device = deviceRepository.findById(devicePk);
+        if (device.isEmpty() || device.get().getDeletedAt() != null) {
+            log.warn("Dropping {} journaled record(s) for unknown or deleted device {}", records.size(), devicePk);
+            return;
+        }
+        dataIngestionService.ingest(device.get(), records);
+    }
+}
@@ -0,0 +1,238 @@
+package com.environment.control.live;
+
+import com.environment.control.data.DeviceData;
+import com.environment.control.data.DeviceDataRepository;
+import com.environment.control.device.Device;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Component
+public class LiveFeed {
+
+    private static final String EVENT_NAME = "reading";
+
+    private final DeviceDataRepository deviceDataRepository;
+    private final int bufferSize;
+    private final int maxBatch;
+    private final int maxSubscribers;
+    private final long emitterTimeoutMs;
+    private final long heartbeatMs;
+    private final Cache<Long, ReadingRing> rings;
+    private final ReadingRing fleet;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService sender;
+    private final Counter dropped;
+
+    public LiveFeed(DeviceDataRepository deviceDataRepository,
+                    MeterRegistry meterRegistry,
+                    @Value("${app.live.buffer-size:256}") int bufferSize,
+                    @Value("${app.live.fleet-buffer-size:4096}") int fleetBufferSize,
+                    @Value("${app.live.max-batch:200}") int maxBatch,
+                    @Value("${app.live.max-subscribers:500}") int maxSubscribers,
+                    @Value("${app.live.sender-threads:4}") int senderThreads,
+                    @Value("${app.live.emitter-timeout-ms:1800000}") long emitterTimeoutMs,
+                    @Value("${app.live.heartbeat-ms:15000}") long heartbeatMs,
+                    @Value("${app.live.idle-ms:3600000}") long idleMs) {
+        this.deviceDataRepository = deviceDataRepository;
+        this.bufferSize = bufferSize;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.maxSubscribers = maxSubscribers;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.heartbeatMs = heartbeatMs;
+        this.rings = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMillis(idleMs))
+                .build();
+        this.fleet = new ReadingRing(fleetBufferSize);
+        this.sender = Executors.newFixedThreadPool(Math.max(1, senderThreads), daemonThreads());
+        Gauge.builder("live.subscribers", subscribers, Set::size)
+                .description("Open server-sent event streams of live readings")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("live.readings.dropped")
+                .description("Live readings skipped for subscribers that fell behind")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sender.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    public void publish(Device device, List<DeviceData> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        ReadingRing ring = rings.getIfPresent(device.getId());
+        for (DeviceData data : records) {
+            LiveReading reading = new LiveReading(device.getDeviceId(), data.getSequenceNumber(),
+                    data.getCreatedAt().toEpochMilli(), data.getMq135(), data.getTemperature(), data.getHumidity(), data.getDistance());
+            if (ring != null) {
+                ring.append(reading);
+            }
+            fleet.append(reading);
+        }
+    }
+
+    public boolean hasSubscribers() {
+        return !subscribers.isEmpty();
+    }
+
+    public SseEmitter subscribe(Device device, Long lastEventId) {
+        ReadingRing ring = rings.get(device.getId(), id -> new ReadingRing(bufferSize));
+        Subscriber subscriber = open(ring, false);
+        if (lastEventId == null) {
+            subscriber.cursor = ring.next();
+        } else {
+            subscriber.cursor = ring.positionAfterSequence(lastEventId);
+            if (subscriber.cursor == ring.oldest()) {
+                replayStored(subscriber, device, lastEventId);
+            }
+        }
+        return register(subscriber);
+    }
+
+    public SseEmitter subscribeFleet(Long lastEventId) {
+        Subscriber subscriber = open(fleet, true);
+        long next = fleet.next();
+        subscriber.cursor = lastEventId != null && lastEventId < next ? Math.max(lastEventId + 1, fleet.oldest()) : next;
+        return register(subscriber);
+    }
+
+    @Scheduled(fixedDelayString = "${app.live.dispatch-interval-ms:250}")
+    public void dispatch() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers) {
+            boolean due = subscriber.ring.next() > subscriber.cursor || now - subscriber.lastSentAt >= heartbeatMs;
+            if (due && subscriber.busy.compareAndSet(false, true)) {
+                sender.execute(() -> {
+                    try {
+                        flush(subscriber);
+                    } finally {
+                        subscriber.busy.set(false);
+                    }
+                });
+            }
+        }
+    }
+
+    private Subscriber open(ReadingRing ring, boolean fleetStream) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many live subscribers");
+        }
+        return new Subscriber(new SseEmitter(emitterTimeoutMs), ring, fleetStream);
+    }
+
+    private SseEmitter register(Subscriber subscriber) {
+        SseEmitter emitter = subscriber.emitter;
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    private void replayStored(Subscriber subscriber, Device device, long lastEventId) {
+        List<DeviceData> stored = deviceDataRepository.findByDeviceAndSequenceNumberGreaterThanOrderBySequenceNumberAsc(
+                device, lastEventId, Limit.of(bufferSize));
+        try {
+            for (DeviceData data : stored) {
+                LiveReading reading = new LiveReading(device.getDeviceId(), data.getSequenceNumber(),
+                        data.getCreatedAt().toEpochMilli(), data.getMq135(), data.getTemperature(), data.getHumidity(), data.getDistance());
+                send(subscriber, reading, reading.getSequence());
+                subscriber.floor = reading.getSequence();
+            }
+        } catch (IOException e) {
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+
+    private void flush(Subscriber subscriber) {
+        ReadingRing ring = subscriber.ring;
+        long start = subscriber.cursor;
+        long oldest = ring.oldest();
+        if (start < oldest) {
+            dropped.increment(oldest - start);
+            start = oldest;
+        }
+        long behind = ring.next() - start;
+        if (behind > maxBatch) {
+            dropped.increment(behind - maxBatch);
+            start += behind - maxBatch;
+        }
+        List<LiveReading> batch = new ArrayList<>();
+        subscriber.cursor = ring.read(start, maxBatch, batch);
+        try {
+            long position = subscriber.cursor - batch.size();
+            for (LiveReading reading : batch) {
+                if (subscriber.fleetStream) {
+                    send(subscriber, reading, position++);
+                } else if (reading.getSequence() > subscriber.floor) {
+                    send(subscriber, reading, reading.getSequence());
+                }
+            }
+            if (batch.isEmpty()) {
+                subscriber.emitter.send(SseEmitter.event().comment("keepalive"));
+                subscriber.lastSentAt = System.currentTimeMillis();
+            }
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+
+    private void send(Subscriber subscriber, LiveReading reading, long id) throws IOException {
+        subscriber.emitter.send(SseEmitter.event()
+                .id(Long.toString(id))
+                .name(EVENT_NAME)
+                .data(reading, MediaType.APPLICATION_JSON));
+        subscriber.lastSentAt = System.currentTimeMillis();
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "live-feed-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final ReadingRing ring;
+        private final boolean fleetStream;
+        private final AtomicBoolean busy = new AtomicBoolean();
+        private volatile long cursor;
+        private volatile long lastSentAt = System.currentTimeMillis();
+        private long floor = Long.MIN_VALUE;
+
+        private Subscriber(SseEmitter emitter, ReadingRing ring, boolean fleetStream) {
+            this.emitter = emitter;
+            this.ring = ring;
+            this.fleetStream = fleetStream;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.environment.control.live;
+
+public class LiveReading {
+    private final String deviceId;
+    private final long sequence;
+    private final long time;
+    private final Float mq135;
+    private final Float temperature;
+    private final Float humidity;
+    private final Float distance;
+
+    public LiveReading(String deviceId, long sequence, long time, Float mq135, Float temperature, Float humidity, Float distance) {
+        this.deviceId = deviceId;
+        this.sequence = sequence;
+        this.time = time;
+        this.mq135 = mq135;
+        this.temperature = temperature;
+        this.humidity = humidity;
+        this.distance = distance;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public Float getMq135() {
+        return mq135;
+    }
+
+    public Float getTemperature() {
+        return temperature;
+    }
+
+    public Float getHumidity() {
+        return humidity;
+    }
+
+    public Float getDistance() {
+        return distance;
+    }
+}
@@ -0,0 +1,44 @@
+package com.environment.control.live;
+
+import java.util.List;
+
+public class ReadingRing {
+
+    private final LiveReading[] slots;
+    private long next;
+
+    public ReadingRing(int capacity) {
+        this.slots = new LiveReading[Math.max(1, capacity)];
+    }
+
+    public synchronized long append(LiveReading reading) {
+        slots[(int) (next % slots.length)] = reading;
+        return next++;
+    }
+
+    public synchronized long next() {
+        return next;
+    }
+
+    public synchronized long oldest() {
+        return Math.max(0, next - slots.length);
+    }
+
+    public synchronized long positionAfterSequence(long sequence) {
+        for (long position = oldest(); position < next; position++) {
+            if (slots[(int) (position % slots.length)].getSequence() > sequence) {
+                return position;
+            }
+        }
+        return next;
+    }
+
+    public synchronized long read(long from, int max, List<LiveReading> out) {
+        long position = Math.max(from, oldest());
+        long end = Math.min(next, position + max);
+        for (; position < end; position++) {
+            out.add(slots[(int) (position % slots.length)]);
+        }
+        return position;
+    }
+}
@@ -0,0 +1,229 @@
+package com.environment.control.partition;
+
+import jakarta.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+@DependsOn("entityManagerFactory")
+public class PartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionManager.class);
+    private static final String TABLE = "device_data";
+    private static final String LEGACY_TABLE = "device_data_legacy";
+
+    private static final String RELKIND = "SELECT relkind::text FROM pg_class WHERE oid = to_regclass(?)";
+
+    private static final String CONSTRAINTS = """
+            SELECT conname, contype::text AS contype, pg_get_constraintdef(oid) AS definition
+            FROM pg_constraint WHERE conrelid = to_regclass(?)
+            """;
+
+    private static final String INDEXES = """
+            SELECT c.relname FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid
+            WHERE i.indrelid = to_regclass(?)
+            """;
+
+    private static final String SEQUENCE_UNIQUE_INDEXES = """
+            SELECT count(*) FROM pg_index i
+            WHERE i.indrelid = to_regclass(?) AND i.indisunique
+              AND pg_get_indexdef(i.indexrelid) LIKE '%(device_id, sequence_number)'
+            """;
+
+    private static final String PARTITIONS = """
+            SELECT c.relname,
+                   substring(pg_get_expr(c.relpartbound, c.oid) FROM 'FROM \\(''([^'']+)''\\)')::timestamptz AS lower_bound,
+                   substring(pg_get_expr(c.relpartbound, c.oid) FROM 'TO \\(''([^'']+)''\\)')::timestamptz AS upper_bound
+            FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = to_regclass(?)
+            ORDER BY upper_bound
+            """;
+
+    private static final String SUBTRACT_DROPPED = """
+            UPDATE devices d SET stored_rows = d.stored_rows - p.rows
+            FROM (SELECT device_id, count(*) AS rows FROM %s GROUP BY device_id) p
+            WHERE d.id = p.device_id
+            """;
+
+    private static final String RECORD_DROP = "INSERT INTO partition_drops (relname) VALUES (?) ON CONFLICT DO NOTHING";
+
+    private static final String RECORDED_DROPS = "SELECT relname FROM partition_drops ORDER BY relname";
+
+    private static final String FORGET_DROP = "DELETE FROM partition_drops WHERE relname = ?";
+
+    private static final String ATTACHMENT = "SELECT inhdetachpending FROM pg_inherits WHERE inhrelid = to_regclass(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final int retentionDays;
+
+    public PartitionManager(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.partitioning.enabled:false}") boolean enabled,
+                            @Value("${app.partitioning.months-ahead:3}") int monthsAhead,
+                            @Value("${app.partitioning.retention-days:0}") int retentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.retentionDays = retentionDays;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            if (!isPartitioned()) {
+                ensurePlainIndexes();
+            }
+            return;
+        }
+        if (!isPartitioned()) {
+            transactionTemplate.executeWithoutResult(status -> convert());
+        }
+        maintain();
+    }
+
+    @Scheduled(fixedDelayString = "${app.partitioning.maintenance-interval-ms:3600000}",
+            initialDelayString = "${app.partitioning.maintenance-interval-ms:3600000}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        createAhead();
+        if (retentionDays > 0) {
+            dropExpired(Instant.now().minus(retentionDays, ChronoUnit.DAYS));
+        }
+    }
+
+    private boolean isPartitioned() {
+        List<String> kind = jdbcTemplate.queryForList(RELKIND, String.class, TABLE);
+        return !kind.isEmpty() && "p".equals(kind.get(0));
+    }
+
+    private void ensurePlainIndexes() {
+        Long unique = jdbcTemplate.queryForObject(SEQUENCE_UNIQUE_INDEXES, Long.class, TABLE);
+        if (unique == null || unique == 0) {
+            jdbcTemplate.execute("CREATE UNIQUE INDEX uk_device_data_device_sequence ON device_data (device_id, sequence_number)");
+        }
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_device_data_device_created_seq ON device_data (device_id, created_at, sequence_number)");
+        boolean hasForeignKey = jdbcTemplate.queryForList(CONSTRAINTS, TABLE).stream()
+                .anyMatch(constraint -> "f".equals(constraint.get("contype")));
+        if (!hasForeignKey) {
+            jdbcTemplate.execute("ALTER TABLE device_data ADD CONSTRAINT fk_device_data_device FOREIGN KEY (device_id) REFERENCES devices(id)");
+        }
+    }
+
+    private void convert() {
+        jdbcTemplate.execute("LOCK TABLE device_data IN ACCESS EXCLUSIVE MODE");
+        Long maxId = jdbcTemplate.queryForObject("SELECT max(id) FROM device_data", Long.class);
+        Instant legacyUpper = monthStart(YearMonth.now(ZoneOffset.UTC).plusMonths(1));
+        List<Map<String, Object>> constraints = jdbcTemplate.queryForList(CONSTRAINTS, TABLE);
+
+        jdbcTemplate.execute("ALTER TABLE device_data ALTER COLUMN id DROP IDENTITY IF EXISTS");
+        for (Map<String, Object> constraint : constraints) {
+            String type = (String) constraint.get("contype");
+            if ("p".equals(type) || "u".equals(type) || "f".equals(type)) {
+                jdbcTemplate.execute("ALTER TABLE device_data DROP CONSTRAINT " + constraint.get("conname"));
+            }
+        }
+        jdbcTemplate.execute("ALTER TABLE device_data RENAME TO " + LEGACY_TABLE);
+        for (String index : jdbcTemplate.queryForList(INDEXES, String.class, LEGACY_TABLE)) {
+            jdbcTemplate.execute("ALTER INDEX " + index + " RENAME TO " + index + "_legacy");
+        }
+
+        jdbcTemplate.execute("CREATE TABLE device_data (LIKE " + LEGACY_TABLE + " INCLUDING DEFAULTS) PARTITION BY RANGE (created_at)");
+        jdbcTemplate.execute("CREATE SEQUENCE device_data_id_seq OWNED BY device_data.id");
+        jdbcTemplate.execute("SELECT setval('device_data_id_seq', " + (maxId != null ? maxId + 1 : 1) + ", false)");
+        jdbcTemplate.execute("ALTER TABLE device_data ALTER COLUMN id SET DEFAULT nextval('device_data_id_seq')");
+        jdbcTemplate.execute("ALTER TABLE device_data ADD CONSTRAINT device_data_pkey PRIMARY KEY (id, created_at)");
+        jdbcTemplate.execute("CREATE INDEX idx_device_data_device_seq ON device_data (device_id, sequence_number)");
+        jdbcTemplate.execute("CREATE INDEX idx_device_data_device_created_seq ON device_data (device_id, created_at, sequence_number)");
+        jdbcTemplate.execute("ALTER TABLE device_data ATTACH PARTITION " + LEGACY_TABLE
+                + " FOR VALUES FROM (MINVALUE) TO ('" + legacyUpper + "')");
+        for (Map<String, Object> constraint : constraints) {
+            if ("f".equals(constraint.get("contype"))) {
+                jdbcTemplate.execute("ALTER TABLE device_data ADD CONSTRAINT " + constraint.get("conname")
+                        + " " + constraint.get("definition"));
+            }
+        }
+        log.info("Converted device_data to a partitioned table; existing rows live in {} up to {}", LEGACY_TABLE, legacyUpper);
+    }
+
+    private void createAhead() {
+        List<Map<String, Object>> partitions = jdbcTemplate.queryForList(PARTITIONS, TABLE);
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        for (YearMonth month = current; !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            Instant start = monthStart(month);
+            Instant end = monthStart(month.plusMonths(1));
+            if (partitions.stream().anyMatch(partition -> overlaps(partition, start, end))) {
+                continue;
+            }
+            String name = String.format("%s_p%04d_%02d", TABLE, month.getYear(), month.getMonthValue());
+            jdbcTemplate.execute("CREATE TABLE " + name + " PARTITION OF " + TABLE
+                    + " FOR VALUES FROM ('" + start + "') TO ('" + end + "')");
+            log.info("Created partition {}", name);
+        }
+    }
+
+    private static boolean overlaps(Map<String, Object> partition, Instant start, Instant end) {
+        Timestamp lower = (Timestamp) partition.get("lower_bound");
+        Timestamp upper = (Timestamp) partition.get("upper_bound");
+        return (lower == null || lower.toInstant().isBefore(end)) && (upper == null || upper.toInstant().isAfter(start));
+    }
+
+    private void dropExpired(Instant cutoff) {
+        for (Map<String, Object> partition : jdbcTemplate.queryForList(PARTITIONS, TABLE)) {
+            Timestamp upper = (Timestamp) partition.get("upper_bound");
+            if (upper == null || upper.toInstant().isAfter(cutoff)) {
+                continue;
+            }
+            jdbcTemplate.update(RECORD_DROP, (String) partition.get("relname"));
+        }
+        for (String name : jdbcTemplate.queryForList(RECORDED_DROPS, String.class)) {
+            finishDrop(name);
+        }
+    }
+
+    private void finishDrop(String name) {
+        if (jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name) != Boolean.TRUE) {
+            jdbcTemplate.update(FORGET_DROP, name);
+            return;
+        }
+        List<Boolean> attachment = jdbcTemplate.queryForList(ATTACHMENT, Boolean.class, name);
+        if (!attachment.isEmpty()) {
+            String mode = Boolean.TRUE.equals(attachment.get(0)) ? " FINALIZE" : " CONCURRENTLY";
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + name + mode);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(SUBTRACT_DROPPED.formatted(name));
+            jdbcTemplate.execute("DROP TABLE " + name);
+            jdbcTemplate.update(FORGET_DROP, name);
+        });
+        log.info("Dropped partition {} past retention", name);
+    }
+
+    private static Instant monthStart(YearMonth month) {
+        return LocalDate.of(month.getYear(), month.getMonth(), 1).atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+}
@@ -0,0 +1,102 @@
+package com.environment.control.rollup;
+
+import com.environment.control.device.Device;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.Instant;
+
+@Entity
+@Table(name = "device_data_rollup",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"device_id", "resolution", "bucketStart"}))
+public class DeviceDataRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "device_id", nullable = false)
+    private Device device;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private RollupResolution resolution;
+
+    @Column(nullable = false)
+    private Instant bucketStart;
+
+    @Column(nullable = false)
+    private long readingCount;
+
+    @Column(nullable = false)
+    private long lastSequence;
+
+    @Column(name = "mq135_count", nullable = false)
+    private long mq135Count;
+    @Column(name = "mq135_min")
+    private Float mq135Min;
+    @Column(name = "mq135_max")
+    private Float mq135Max;
+    @Column(name = "mq135_sum", nullable = false)
+    private double mq135Sum;
+    @Column(name = "mq135_last")
+    private Float mq135Last;
+
+    @Column(nullable = false)
+    private long temperatureCount;
+    private Float temperatureMin;
+    private Float temperatureMax;
+    @Column(nullable = false)
+    private double temperatureSum;
+    private Float temperatureLast;
+
+    @Column(nullable = false)
+    private long humidityCount;
+    private Float humidityMin;
+    private Float humidityMax;
+    @Column(nullable = false)
+    private double humiditySum;
+    private Float humidityLast;
+
+    @Column(nullable = false)
+    private long distanceCount;
+    private Float distanceMin;
+    private Float distanceMax;
+    @Column(nullable = false)
+    private double distanceSum;
+    private Float distanceLast;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Device getDevice() {
+        return device;
+    }
+
+    public RollupResolution getResolution() {
+        return resolution;
+    }
+
+    public Instant getBucketStart() {
+        return bucketStart;
+    }
+
+    public long getReadingCount() {
+        return readingCount;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+}
@@ -0,0 +1,42 @@
+package com.environment.control.rollup;
+
+import com.environment.control.data.SensorBackfillJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RollupBackfillJob {
+
+    private static final Logger log = LoggerFactory.getLogger(RollupBackfillJob.class);
+
+    private final RollupWriter rollupWriter;
+    private final RollupService rollupService;
+    private final SensorBackfillJob sensorBackfillJob;
+    private final boolean enabled;
+    private boolean completed;
+
+    public RollupBackfillJob(RollupWriter rollupWriter,
+                             RollupService rollupService,
+                             SensorBackfillJob sensorBackfillJob,
+                             @Value("${app.rollups.backfill-enabled:true}") boolean enabled) {
+        this.rollupWriter = rollupWriter;
+        this.rollupService = rollupService;
+        this.sensorBackfillJob = sensorBackfillJob;
+        this.enabled = enabled;
+    }
+
+    @Scheduled(fixedDelayString = "${app.ingest.backfill.interval-ms:10000}")
+    public synchronized void run() {
+        if (!enabled || completed || !sensorBackfillJob.isFinished()) {
+            return;
+        }
+        for (Long devicePk : rollupWriter.devicesWithData()) {
+            rollupService.backfillMissing(devicePk);
+        }
+        completed = true;
+        log.info("Rollup backfill check complete");
+    }
+}
@@ -0,0 +1,35 @@
+package com.environment.control.rollup;
+
+import java.time.Duration;
+
+public enum RollupResolution {
+    MINUTE("minute", Duration.ofMinutes(1)),
+    HOUR("hour", Duration.ofHours(1)),
+    DAY("day", Duration.ofDays(1));
+
+    private final String unit;
+    private final Duration duration;
+
+    RollupResolution(String unit, Duration duration) {
+        this.unit = unit;
+        this.duration = duration;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public static RollupResolution coarsestWithin(Duration bucket) {
+        RollupResolution[] values = values();
+        for (int i = values.length - 1; i >= 0; i--) {
+            if (values[i].duration.compareTo(bucket) <= 0) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,66 @@
+package com.environment.control.rollup;
+
+import com.environment.control.cold.ColdStore;
+import com.environment.control.device.Device;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+@Service
+public class RollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(RollupService.class);
+
+    private final RollupWriter rollupWriter;
+    private final ColdStore coldStore;
+
+    public RollupService(RollupWriter rollupWriter, ColdStore coldStore) {
+        this.rollupWriter = rollupWriter;
+        this.coldStore = coldStore;
+    }
+
+    public int rebuild(Device device, Instant from, Instant to) {
+        return rebuild(device.getId(), from, to);
+    }
+
+    public int rebuild(long devicePk, Instant from, Instant to) {
+        Instant start = from != null ? from : rollupWriter.firstReading(devicePk).orElse(null);
+        if (start == null) {
+            return 0;
+        }
+        Instant firstRebuildable = coldStore.sealedThrough(devicePk)
+                .map(sealed -> sealed.truncatedTo(ChronoUnit.DAYS).plus(1, ChronoUnit.DAYS))
+                .orElse(Instant.MIN);
+        if (start.isBefore(firstRebuildable)) {
+            log.info("Keeping rollups of device {} before {}; those readings are sealed in cold blocks", devicePk, firstRebuildable);
+            start = firstRebuildable;
+        }
+        Instant end = to != null ? to : Instant.now();
+        Instant day = start.truncatedTo(ChronoUnit.DAYS);
+        int buckets = 0;
+        int days = 0;
+        while (day.isBefore(end)) {
+            Instant next = day.plus(1, ChronoUnit.DAYS);
+            buckets += rollupWriter.rebuildDays(devicePk, day, next);
+            days++;
+            day = next;
+        }
+        log.info("Rebuilt {} rollup bucket(s) over {} day(s) for device {}", buckets, days, devicePk);
+        return buckets;
+    }
+
+    public void backfillMissing(long devicePk) {
+        Instant firstReading = rollupWriter.firstReading(devicePk).orElse(null);
+        if (firstReading == null) {
+            return;
+        }
+        Instant firstRollupDay = rollupWriter.firstRollupDay(devicePk).orElse(null);
+        if (firstRollupDay == null) {
+            rebuild(devicePk, firstReading, null);
+        } else if (firstReading.isBefore(firstRollupDay)) {
+            rebuild(devicePk, firstReading, firstRollupDay.plus(1, ChronoUnit.DAYS));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.environment.control.rollup;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public final class RollupSql {
+
+    public static final List<String> SENSORS = List.of("mq135", "temperature", "humidity", "distance");
+
+    private static final String RESOLUTIONS = "(VALUES ('MINUTE', 'minute'), ('HOUR', 'hour'), ('DAY', 'day')) AS r(resolution, unit)";
+
+    private static final String COLUMNS = "device_id, resolution, bucket_start, reading_count, last_sequence, "
+            + SENSORS.stream()
+                    .map(s -> s + "_count, " + s + "_min, " + s + "_max, " + s + "_sum, " + s + "_last")
+                    .collect(Collectors.joining(", "));
+
+    private static final String AGGREGATES = "src.device_id, r.resolution, date_trunc(r.unit, src.created_at, 'UTC'), "
+            + "count(*), max(src.sequence_number), "
+            + SENSORS.stream()
+                    .map(s -> "count(src." + s + "), min(src." + s + "), max(src." + s + "), "
+                            + "coalesce(sum(src." + s + "::double precision), 0), "
+                            + "(array_agg(src." + s + " ORDER BY src.sequence_number DESC) FILTER (WHERE src." + s + " IS NOT NULL))[1]")
+                    .collect(Collectors.joining(", "));
+
+    private static final String MERGE = "reading_count = t.reading_count + EXCLUDED.reading_count, "
+            + "last_sequence = GREATEST(t.last_sequence, EXCLUDED.last_sequence), "
+            + SENSORS.stream()
+                    .map(s -> s + "_count = t." + s + "_count + EXCLUDED." + s + "_count, "
+                            + s + "_min = LEAST(t." + s + "_min, EXCLUDED." + s + "_min), "
+                            + s + "_max = GREATEST(t." + s + "_max, EXCLUDED." + s + "_max), "
+                            + s + "_sum = t." + s + "_sum + EXCLUDED." + s + "_sum, "
+                            + s + "_last = CASE WHEN EXCLUDED.last_sequence > t.last_sequence"
+                            + " THEN COALESCE(EXCLUDED." + s + "_last, t." + s + "_last)"
+                            + " ELSE COALESCE(t." + s + "_last, EXCLUDED." + s + "_last) END")
+                    .collect(Collectors.joining(", "));
+
+    private RollupSql() {
+    }
+
+    public static String upsertFrom(String source) {
+        return "INSERT INTO device_data_rollup AS t (" + COLUMNS + ") "
+                + "SELECT " + AGGREGATES + " FROM " + source + " src CROSS JOIN " + RESOLUTIONS + " "
+                + "GROUP BY src.device_id, r.resolution, r.unit, 3 "
+                + "ON CONFLICT (device_id, resolution, bucket_start) DO UPDATE SET " + MERGE;
+    }
+}
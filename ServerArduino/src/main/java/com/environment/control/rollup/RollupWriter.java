@@ -0,0 +1,68 @@
+package com.environment.control.rollup;
+
+import com.environment.control.data.DeviceWriteLock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public class RollupWriter {
+
+    private static final String DELETE_RANGE = """
+            DELETE FROM device_data_rollup
+            WHERE device_id = ? AND bucket_start >= to_timestamp(? / 1000.0) AND bucket_start < to_timestamp(? / 1000.0)
+            """;
+
+    private static final String REBUILD_RANGE = RollupSql.upsertFrom("""
+            (SELECT device_id, sequence_number, created_at, mq135, temperature, humidity, distance
+             FROM device_data
+             WHERE device_id = ? AND created_at >= to_timestamp(? / 1000.0) AND created_at < to_timestamp(? / 1000.0))""");
+
+    private static final String FIRST_READING = """
+            SELECT (extract(epoch FROM min(created_at)) * 1000)::bigint FROM device_data WHERE device_id = ?
+            """;
+
+    private static final String FIRST_DAY_ROLLUP = """
+            SELECT (extract(epoch FROM min(bucket_start)) * 1000)::bigint
+            FROM device_data_rollup WHERE device_id = ? AND resolution = 'DAY'
+            """;
+
+    private static final String DEVICES_WITH_DATA = "SELECT id FROM devices d WHERE d.deleted_at IS NULL AND EXISTS (SELECT 1 FROM device_data x WHERE x.device_id = d.id)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DeviceWriteLock deviceWriteLock;
+
+    public RollupWriter(JdbcTemplate jdbcTemplate, DeviceWriteLock deviceWriteLock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.deviceWriteLock = deviceWriteLock;
+    }
+
+    @Transactional
+    public int rebuildDays(long devicePk, Instant dayStart, Instant dayEnd) {
+        long from = dayStart.toEpochMilli();
+        long to = dayEnd.toEpochMilli();
+        deviceWriteLock.lock(devicePk);
+        jdbcTemplate.update(DELETE_RANGE, devicePk, from, to);
+        return jdbcTemplate.update(REBUILD_RANGE, devicePk, from, to);
+    }
+
+    public Optional<Instant> firstReading(long devicePk) {
+        return queryInstant(FIRST_READING, devicePk);
+    }
+
+    public Optional<Instant> firstRollupDay(long devicePk) {
+        return queryInstant(FIRST_DAY_ROLLUP, devicePk);
+    }
+
+    public List<Long> devicesWithData() {
+        return jdbcTemplate.queryForList(DEVICES_WITH_DATA, Long.class);
+    }
+
+    private Optional<Instant> queryInstant(String sql, long devicePk) {
+        Long millis = jdbcTemplate.queryForObject(sql, Long.class, devicePk);
+        return Optional.ofNullable(millis).map(Instant::ofEpochMilli);
+    }
+}
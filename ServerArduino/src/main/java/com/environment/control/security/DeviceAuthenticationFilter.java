@@ -1,18 +1,20 @@
 package com.environment.control.security;
 
-import com.environment.control.device.Device;
-import com.environment.control.device.DeviceRepository;
+import com.environment.control.device.DeviceCache;
+import com.environment.control.device.DeviceSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -20,12 +22,21 @@ import org.springframework.web.filter.OncePerRequestFilter;
 @Component
 public class DeviceAuthenticationFilter extends OncePerRequestFilter {
 
+    private final VerifiedTokenCache verifiedTokenCache;
     private final TokenService tokenService;
-    private final DeviceRepository deviceRepository;
+    private final DeviceCache deviceCache;
+    private final Timer authenticated;
+    private final Timer unknownDevice;
+    private final Timer rejected;
 
-    public DeviceAuthenticationFilter(TokenService tokenService, DeviceRepository deviceRepository) {
+    public DeviceAuthenticationFilter(VerifiedTokenCache verifiedTokenCache, TokenService tokenService, DeviceCache deviceCache,
+                                      MeterRegistry meterRegistry) {
+        this.verifiedTokenCache = verifiedTokenCache;
         this.tokenService = tokenService;
-        this.deviceRepository = deviceRepository;
+        this.deviceCache = deviceCache;
+        this.authenticated = authTimer(meterRegistry, "authenticated");
+        this.unknownDevice = authTimer(meterRegistry, "unknown-device");
+        this.rejected = authTimer(meterRegistry, "rejected");
     }
 
     @Override
@@ -34,20 +45,33 @@ public class DeviceAuthenticationFilter extends OncePerRequestFilter {
         String header = request.getHeader(HttpHeaders.AUTHORIZATION);
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
+            long started = System.nanoTime();
+            Timer outcome = rejected;
             try {
-                String deviceId = tokenService.parseDeviceId(token);
-                Optional<Device> device = deviceRepository.findByDeviceId(deviceId);
-                if (device.isPresent()) {
-                    User principal = new User(device.get().getDeviceId(), "N/A", java.util.List.of());
+                VerifiedToken verified = verifiedTokenCache.resolve(token);
+                Optional<DeviceSnapshot> device = deviceCache.snapshot(verified.getDeviceId());
+                if (device.isEmpty()) {
+                    outcome = unknownDevice;
+                } else if (tokenService.isCurrent(verified, device.get().getSecretHash())) {
+                    DevicePrincipal principal = new DevicePrincipal(device.get().toDevice(), device.get().getRequestVersion());
                     Authentication authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
                     ((UsernamePasswordAuthenticationToken) authentication).setDetails(
                             new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authentication);
+                    outcome = authenticated;
                 }
             } catch (Exception ignored) {
                 SecurityContextHolder.clearContext();
             }
+            outcome.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
         }
         filterChain.doFilter(request, response);
     }
+
+    private static Timer authTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("auth.token.duration").tag("outcome", outcome)
+                .description("Time to verify a device bearer token and resolve its device")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 }
@@ -0,0 +1,25 @@
+package com.environment.control.security;
+
+import com.environment.control.device.Device;
+import java.util.List;
+import org.springframework.security.core.userdetails.User;
+
+public class DevicePrincipal extends User {
+
+    private final transient Device device;
+    private final long requestVersion;
+
+    public DevicePrincipal(Device device, long requestVersion) {
+        super(device.getDeviceId(), "N/A", List.of());
+        this.device = device;
+        this.requestVersion = requestVersion;
+    }
+
+    public Device getDevice() {
+        return device;
+    }
+
+    public long getRequestVersion() {
+        return requestVersion;
+    }
+}
@@ -1,29 +1,44 @@
 package com.environment.control.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.Key;
+import java.security.MessageDigest;
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Date;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
 public class TokenService {
 
+    private static final String SECRET_FINGERPRINT = "sfp";
+    private static final int FINGERPRINT_BYTES = 12;
+
     private final Key signingKey;
+    private final JwtParser parser;
 
     public TokenService(@Value("${app.security.jwt-secret:change-me}") String secret) {
         this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
     }
 
-    public String generateToken(String deviceId) {
+    public String generateToken(String deviceId, byte[] secretHash) {
         Instant now = Instant.now();
         return Jwts.builder()
                 .setSubject(deviceId)
+                .claim(SECRET_FINGERPRINT, fingerprint(secretHash))
                 .setIssuedAt(Date.from(now))
                 .setExpiration(Date.from(now.plusSeconds(60 * 60 * 12)))
                 .signWith(signingKey, SignatureAlgorithm.HS256)
@@ -31,11 +46,30 @@ public class TokenService {
     }
 
     public String parseDeviceId(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(signingKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();
+        return parser.parseClaimsJws(token).getBody().getSubject();
+    }
+
+    public VerifiedToken verify(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Date expiration = claims.getExpiration();
+        return new VerifiedToken(claims.getSubject(), claims.get(SECRET_FINGERPRINT, String.class),
+                expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+    }
+
+    public boolean isCurrent(VerifiedToken token, byte[] secretHash) {
+        return token.getSecretFingerprint() != null
+                && MessageDigest.isEqual(token.getSecretFingerprint().getBytes(StandardCharsets.US_ASCII),
+                fingerprint(secretHash).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private String fingerprint(byte[] secretHash) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(signingKey.getEncoded(), "HmacSHA256"));
+            byte[] digest = mac.doFinal(secretHash);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, FINGERPRINT_BYTES));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot fingerprint device secret", e);
+        }
     }
 }
@@ -0,0 +1,25 @@
+package com.environment.control.security;
+
+public class VerifiedToken {
+    private final String deviceId;
+    private final String secretFingerprint;
+    private final long expiresAtMillis;
+
+    public VerifiedToken(String deviceId, String secretFingerprint, long expiresAtMillis) {
+        this.deviceId = deviceId;
+        this.secretFingerprint = secretFingerprint;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public String getSecretFingerprint() {
+        return secretFingerprint;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+}
@@ -0,0 +1,66 @@
+package com.environment.control.security;
+
+import com.environment.control.device.DeviceInvalidatedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+public class VerifiedTokenCache {
+
+    private final TokenService tokenService;
+    private final Cache<String, VerifiedToken> tokens;
+
+    public VerifiedTokenCache(TokenService tokenService,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.security.token-cache.max-size:10000}") long maxSize,
+                              @Value("${app.security.token-cache.ttl-ms:300000}") long ttlMs) {
+        this.tokenService = tokenService;
+        long ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String token, VerifiedToken verified, long currentTime) {
+                        long untilExpiry = TimeUnit.MILLISECONDS.toNanos(verified.getExpiresAtMillis() - System.currentTimeMillis());
+                        return Math.max(0, Math.min(ttlNanos, untilExpiry));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tokens, "deviceTokens");
+    }
+
+    public VerifiedToken resolve(String token) {
+        return tokens.get(token, tokenService::verify);
+    }
+
+    public void evict(String deviceId) {
+        tokens.asMap().values().removeIf(verified -> verified.getDeviceId().equals(deviceId));
+    }
+
+    public void evictAll() {
+        tokens.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeviceInvalidated(DeviceInvalidatedEvent event) {
+        evict(event.getDeviceId());
+    }
+}
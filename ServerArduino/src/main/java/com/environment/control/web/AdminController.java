@@ -1,17 +1,17 @@
 package com.environment.control.web;
 
 import com.environment.control.data.DataIngestionService;
-import com.environment.control.data.DeviceData;
+import com.environment.control.data.HistoryPage;
 import com.environment.control.device.Device;
+import com.environment.control.device.DeviceCommandService;
+import com.environment.control.device.DeviceCommandType;
 import com.environment.control.device.DeviceCommunicationService;
 import com.environment.control.device.DeviceService;
-import com.environment.control.web.view.ChartDataPoint;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.environment.control.rollup.RollupService;
+import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -23,45 +23,56 @@ import org.springframework.web.bind.annotation.RequestParam;
 public class AdminController {
 
     private final DeviceService deviceService;
+    private final DeviceCommandService deviceCommandService;
     private final DataIngestionService dataIngestionService;
     private final DeviceCommunicationService deviceCommunicationService;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RollupService rollupService;
 
     public AdminController(DeviceService deviceService,
+                           DeviceCommandService deviceCommandService,
                            DataIngestionService dataIngestionService,
-                           DeviceCommunicationService deviceCommunicationService) {
+                           DeviceCommunicationService deviceCommunicationService,
+                           RollupService rollupService) {
         this.deviceService = deviceService;
+        this.deviceCommandService = deviceCommandService;
         this.dataIngestionService = dataIngestionService;
         this.deviceCommunicationService = deviceCommunicationService;
+        this.rollupService = rollupService;
     }
 
     @GetMapping({"/", "/admin"})
-    public String dashboard(Model model, @RequestParam(value = "selected", required = false) String selected) {
+    public String dashboard(Model model,
+                            @RequestParam(value = "selected", required = false) String selected,
+                            @RequestParam(value = "after", required = false) Long after,
+                            @RequestParam(value = "size", defaultValue = "50") int size) {
         List<Device> devices = deviceService.listDevices();
+        Map<String, Instant> lastSeen = new HashMap<>();
+        devices.forEach(device -> lastSeen.put(device.getDeviceId(), deviceService.lastSeen(device)));
         model.addAttribute("devices", devices);
+        model.addAttribute("lastSeen", lastSeen);
+        model.addAttribute("purging", deviceService.listPurging());
         if (selected != null) {
             deviceService.findByDeviceId(selected).ifPresent(device -> {
                 model.addAttribute("selectedDevice", device);
-                model.addAttribute("data", dataIngestionService.getData(device));
+                HistoryPage page = dataIngestionService.getPage(device, after, size);
+                model.addAttribute("data", page.getRecords());
+                model.addAttribute("nextAfter", page.getNextAfter());
+                model.addAttribute("pageSize", size);
+                model.addAttribute("paged", after != null);
+                model.addAttribute("dataCount", dataIngestionService.countData(device));
+                model.addAttribute("commands", deviceCommandService.listPending(device, 50));
             });
         }
         return "index";
     }
 
     @GetMapping("/admin/devices/{deviceId}/charts")
-    public String charts(@PathVariable String deviceId, Model model) throws JsonProcessingException {
+    public String charts(@PathVariable String deviceId, Model model) {
         Device device = deviceService.findByDeviceId(deviceId).orElse(null);
         if (device == null) {
             return "redirect:/";
         }
-        List<DeviceData> records = dataIngestionService.getData(device);
-        List<ChartDataPoint> points = records.stream()
-                .map(this::toChartPoint)
-                .filter(Objects::nonNull)
-                .toList();
-
         model.addAttribute("device", device);
-        model.addAttribute("chartDataJson", points.isEmpty() ? "" : objectMapper.writeValueAsString(points));
         return "charts";
     }
 
@@ -86,46 +97,51 @@ public class AdminController {
         return "redirect:/?selected=" + deviceId;
     }
 
+    @PostMapping("/admin/devices/{deviceId}/commands")
+    public String queueCommand(@PathVariable String deviceId,
+                               @RequestParam DeviceCommandType type,
+                               @RequestParam(required = false) Long value,
+                               @RequestParam(required = false) Long from,
+                               @RequestParam(required = false) Long to) {
+        deviceService.findByDeviceId(deviceId).ifPresent(device -> {
+            if (type == DeviceCommandType.UPLOAD_NOW) {
+                deviceService.requestUpload(device);
+            } else {
+                deviceCommandService.enqueue(device, type, value, from, to);
+            }
+        });
+        return "redirect:/?selected=" + deviceId;
+    }
+
     @PostMapping("/admin/devices/{deviceId}/refresh")
     public String refresh(@PathVariable String deviceId) {
         deviceService.findByDeviceId(deviceId).ifPresent(deviceCommunicationService::pullFromDevice);
         return "redirect:/?selected=" + deviceId;
     }
 
-    @PostMapping("/admin/devices/{deviceId}/delete")
-    public String delete(@PathVariable String deviceId) {
-        deviceService.findByDeviceId(deviceId).ifPresent(deviceService::delete);
-        return "redirect:/";
+    @PostMapping("/admin/devices/{deviceId}/secret")
+    public String changeSecret(@PathVariable String deviceId, @RequestParam String secret) {
+        deviceService.findByDeviceId(deviceId).ifPresent(device -> deviceService.changeSecret(device, secret));
+        return "redirect:/?selected=" + deviceId;
     }
 
-    private ChartDataPoint toChartPoint(DeviceData data) {
-        try {
-            Map<String, Object> payload = objectMapper.readValue(data.getPayload(), new TypeReference<Map<String, Object>>() {
-            });
-            Double mq135 = toDouble(payload.get("mq135"));
-            Double humidity = toDouble(payload.get("humidity"));
-            Double temperature = toDouble(payload.get("temperature"));
-            Double distance = toDouble(payload.get("distance"));
-            if (mq135 == null && humidity == null && temperature == null && distance == null) {
-                return null;
-            }
-            return new ChartDataPoint(data.getCreatedAt(), mq135, humidity, temperature, distance);
-        } catch (Exception e) {
-            return null;
-        }
+    @PostMapping("/admin/devices/{deviceId}/retention")
+    public String changeRetention(@PathVariable String deviceId, @RequestParam(required = false) Integer days) {
+        deviceService.findByDeviceId(deviceId).ifPresent(device -> deviceService.changeRetention(device, days));
+        return "redirect:/?selected=" + deviceId;
     }
 
-    private Double toDouble(Object value) {
-        if (value instanceof Number number) {
-            return number.doubleValue();
-        }
-        if (value != null) {
-            try {
-                return Double.parseDouble(value.toString());
-            } catch (NumberFormatException ignored) {
-                return null;
-            }
-        }
-        return null;
+    @PostMapping("/admin/devices/{deviceId}/rollups/rebuild")
+    public String rebuildRollups(@PathVariable String deviceId,
+                                 @RequestParam(required = false) Instant from,
+                                 @RequestParam(required = false) Instant to) {
+        deviceService.findByDeviceId(deviceId).ifPresent(device -> rollupService.rebuild(device, from, to));
+        return "redirect:/?selected=" + deviceId;
+    }
+
+    @PostMapping("/admin/devices/{deviceId}/delete")
+    public String delete(@PathVariable String deviceId) {
+        deviceService.findByDeviceId(deviceId).ifPresent(deviceService::delete);
+        return "redirect:/";
     }
 }
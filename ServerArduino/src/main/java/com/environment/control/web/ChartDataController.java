@@ -0,0 +1,35 @@
+package com.environment.control.web;
+
+import com.environment.control.chart.ChartService;
+import com.environment.control.chart.ChartView;
+import com.environment.control.chart.DownsampleMode;
+import com.environment.control.device.DeviceService;
+import java.time.Instant;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class ChartDataController {
+
+    private final DeviceService deviceService;
+    private final ChartService chartService;
+
+    public ChartDataController(DeviceService deviceService, ChartService chartService) {
+        this.deviceService = deviceService;
+        this.chartService = chartService;
+    }
+
+    @GetMapping("/admin/devices/{deviceId}/charts/data")
+    public ResponseEntity<ChartView> chartData(@PathVariable String deviceId,
+                                               @RequestParam(required = false) Instant from,
+                                               @RequestParam(required = false) Instant to,
+                                               @RequestParam(defaultValue = "1000") int width,
+                                               @RequestParam(defaultValue = "LTTB") DownsampleMode mode) {
+        return deviceService.findByDeviceId(deviceId)
+                .map(device -> ResponseEntity.ok(chartService.build(device, from, to, width, mode)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
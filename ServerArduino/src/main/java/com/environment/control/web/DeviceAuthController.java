@@ -1,11 +1,11 @@
 package com.environment.control.web;
 
+import com.environment.control.admission.DeviceAdmission;
 import com.environment.control.api.DeviceLoginRequest;
 import com.environment.control.api.DeviceLoginResponse;
-import com.environment.control.device.Device;
 import com.environment.control.device.DeviceService;
 import com.environment.control.security.TokenService;
-import java.time.Instant;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -18,20 +18,22 @@ public class DeviceAuthController {
 
     private final DeviceService deviceService;
     private final TokenService tokenService;
+    private final DeviceAdmission deviceAdmission;
 
-    public DeviceAuthController(DeviceService deviceService, TokenService tokenService) {
+    public DeviceAuthController(DeviceService deviceService, TokenService tokenService, DeviceAdmission deviceAdmission) {
         this.deviceService = deviceService;
         this.tokenService = tokenService;
+        this.deviceAdmission = deviceAdmission;
     }
 
     @PostMapping("/login")
-    public ResponseEntity<DeviceLoginResponse> login(@RequestBody DeviceLoginRequest request) {
-        return deviceService.findByDeviceId(request.getDeviceId())
-                .filter(device -> device.getSecret().equals(request.getSecret()))
+    public ResponseEntity<DeviceLoginResponse> login(@RequestBody DeviceLoginRequest request, HttpServletRequest servletRequest) {
+        deviceAdmission.admitLogin(request.getDeviceId(), servletRequest.getRemoteAddr());
+        return deviceService.authenticate(request.getDeviceId(), request.getSecret())
                 .map(device -> {
-                    device.setLastSeen(Instant.now());
-                    deviceService.touch(device);
-                    return ResponseEntity.ok(new DeviceLoginResponse(tokenService.generateToken(device.getDeviceId()), device.getDeviceId()));
+                    deviceService.touch(device.toDevice());
+                    return ResponseEntity.ok(new DeviceLoginResponse(
+                            tokenService.generateToken(device.getDeviceId(), device.getSecretHash()), device.getDeviceId()));
                 })
                 .orElse(ResponseEntity.status(401).build());
     }
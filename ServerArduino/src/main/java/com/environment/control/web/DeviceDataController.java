@@ -1,16 +1,38 @@
 package com.environment.control.web;
 
+import com.environment.control.admission.AdmissionRejectedException;
+import com.environment.control.admission.DeviceAdmission;
 import com.environment.control.api.DeviceDataAck;
 import com.environment.control.api.DeviceDataBatchRequest;
 import com.environment.control.api.DeviceDataRecord;
+import com.environment.control.api.DeviceDataRecordReader;
+import com.environment.control.api.PendingCommand;
 import com.environment.control.api.PendingResponse;
+import com.environment.control.data.BinaryBatchDecoder;
 import com.environment.control.data.DataIngestionService;
 import com.environment.control.data.DeviceData;
+import com.environment.control.data.DeviceDataFactory;
 import com.environment.control.device.Device;
-import com.environment.control.device.DeviceRepository;
+import com.environment.control.device.DeviceCommandService;
 import com.environment.control.device.DeviceService;
+import com.environment.control.device.PendingRequestWaiters;
+import com.environment.control.journal.IngestJournal;
+import com.environment.control.journal.JournalAckBookkeeper;
+import com.environment.control.security.DevicePrincipal;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.User;
@@ -20,6 +42,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 
@@ -27,54 +50,198 @@ import org.springframework.http.HttpStatus;
 @RequestMapping("/api/devices")
 public class DeviceDataController {
 
-    private final DeviceRepository deviceRepository;
     private final DeviceService deviceService;
+    private final DeviceCommandService deviceCommandService;
     private final DataIngestionService dataIngestionService;
+    private final DeviceDataFactory deviceDataFactory;
+    private final IngestJournal ingestJournal;
+    private final JournalAckBookkeeper journalAckBookkeeper;
+    private final PendingRequestWaiters pendingRequestWaiters;
+    private final DeviceAdmission deviceAdmission;
+    private final JsonFactory jsonFactory;
+    private final long longPollTimeoutMs;
+    private final int streamChunkSize;
+    private final DistributionSummary batchSize;
+    private final Timer journalLatency;
+    private final Timer databaseLatency;
 
-    public DeviceDataController(DeviceRepository deviceRepository, DeviceService deviceService,
-                                DataIngestionService dataIngestionService) {
-        this.deviceRepository = deviceRepository;
+    public DeviceDataController(DeviceService deviceService,
+                                DeviceCommandService deviceCommandService,
+                                DataIngestionService dataIngestionService, DeviceDataFactory deviceDataFactory,
+                                IngestJournal ingestJournal,
+                                JournalAckBookkeeper journalAckBookkeeper,
+                                PendingRequestWaiters pendingRequestWaiters,
+                                DeviceAdmission deviceAdmission,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.devices.long-poll-timeout-ms:20000}") long longPollTimeoutMs,
+                                @Value("${app.ingest.stream.chunk-size:500}") int streamChunkSize) {
         this.deviceService = deviceService;
+        this.deviceCommandService = deviceCommandService;
         this.dataIngestionService = dataIngestionService;
+        this.deviceDataFactory = deviceDataFactory;
+        this.ingestJournal = ingestJournal;
+        this.journalAckBookkeeper = journalAckBookkeeper;
+        this.pendingRequestWaiters = pendingRequestWaiters;
+        this.deviceAdmission = deviceAdmission;
+        this.jsonFactory = objectMapper.getFactory();
+        this.longPollTimeoutMs = longPollTimeoutMs;
+        this.streamChunkSize = Math.max(1, streamChunkSize);
+        this.batchSize = DistributionSummary.builder("ingest.batch.size")
+                .description("Records per uploaded batch or stream chunk")
+                .baseUnit("records")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.journalLatency = Timer.builder("ingest.batch.duration").tag("mode", "journal")
+                .description("Time to accept one batch, including the journal fsync or database commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.databaseLatency = Timer.builder("ingest.batch.duration").tag("mode", "database")
+                .description("Time to accept one batch, including the journal fsync or database commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     @GetMapping("/pending-requests")
-    public ResponseEntity<PendingResponse> pending(@RequestParam(name = "longPoll", defaultValue = "false") boolean longPoll,
-                                                   @RequestParam(name = "acknowledge", defaultValue = "false") boolean acknowledge,
-                                                   Authentication authentication) throws InterruptedException {
+    public DeferredResult<ResponseEntity<PendingResponse>> pending(@RequestParam(name = "longPoll", defaultValue = "false") boolean longPoll,
+                                                                   @RequestParam(name = "acknowledge", defaultValue = "false") boolean acknowledge,
+                                                                   @RequestParam(name = "ackCommands", required = false) List<Long> ackCommands,
+                                                                   Authentication authentication) {
+        long seenVersion = requestVersion(authentication);
         Device device = resolveDevice(authentication);
-        if (longPoll && !device.isUploadRequested()) {
-            for (int i = 0; i < 20; i++) {
-                Thread.sleep(1000);
-                device = deviceRepository.findById(device.getId()).orElse(device);
-                if (device.isUploadRequested()) {
-                    break;
-                }
-            }
-        }
-        boolean requested = device.isUploadRequested();
-        if (requested && acknowledge) {
-            device.setUploadRequested(false);
-            deviceRepository.save(device);
-        }
         deviceService.touch(device);
-        return ResponseEntity.ok(new PendingResponse(requested, device.getLastSequenceAcknowledged()));
+        deviceCommandService.acknowledge(device, ackCommands);
+        List<PendingCommand> commands = deviceCommandService.pending(device, false);
+        if (longPoll && !device.isUploadRequested() && commands.isEmpty()) {
+            return pendingRequestWaiters.await(device.getDeviceId(), longPollTimeoutMs, seenVersion,
+                    () -> {
+                        Device current = deviceService.findByDeviceId(device.getDeviceId()).orElse(device);
+                        return respondPending(current, current.isUploadRequested(), acknowledge,
+                                deviceCommandService.pending(current, false));
+                    },
+                    () -> respondPending(device, false, false, List.of()));
+        }
+        DeferredResult<ResponseEntity<PendingResponse>> result = new DeferredResult<>();
+        result.setResult(respondPending(device, device.isUploadRequested(), acknowledge, commands));
+        return result;
     }
 
     @PostMapping("/data")
-    public ResponseEntity<DeviceDataAck> ingest(@RequestBody DeviceDataBatchRequest request, Authentication authentication) {
+    public ResponseEntity<DeviceDataAck> ingest(@RequestBody DeviceDataBatchRequest request,
+                                                @RequestParam(name = "ackCommands", required = false) List<Long> ackCommands,
+                                                Authentication authentication) {
         Device device = resolveDevice(authentication);
         deviceService.touch(device);
+        deviceCommandService.checkAcknowledgeable(ackCommands);
         List<DeviceData> records = request.getRecords().stream()
-                .map(this::toEntity)
+                .map(deviceDataFactory::fromRecord)
                 .collect(Collectors.toList());
-        long last = dataIngestionService.ingest(device, records);
-        device.setUploadRequested(false);
-        deviceRepository.save(device);
-        return ResponseEntity.ok(new DeviceDataAck(last));
+        return acknowledge(device, accept(device, records), ackCommands);
+    }
+
+    @PostMapping(value = "/data", consumes = BinaryBatchDecoder.MEDIA_TYPE)
+    public ResponseEntity<DeviceDataAck> ingestBinary(HttpServletRequest request,
+                                                      @RequestParam(name = "ackCommands", required = false) List<Long> ackCommands,
+                                                      Authentication authentication) throws IOException {
+        Device device = resolveDevice(authentication);
+        deviceService.touch(device);
+        deviceCommandService.checkAcknowledgeable(ackCommands);
+        List<DeviceData> records;
+        try {
+            records = BinaryBatchDecoder.decode(request.getInputStream());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return acknowledge(device, accept(device, records), ackCommands);
+    }
+
+    @PostMapping(value = "/data/stream", consumes = {"application/x-ndjson", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<DeviceDataAck> ingestStream(HttpServletRequest request,
+                                                      @RequestParam(name = "ackCommands", required = false) List<Long> ackCommands,
+                                                      Authentication authentication) {
+        Device device = resolveDevice(authentication);
+        deviceService.touch(device);
+        deviceCommandService.checkAcknowledgeable(ackCommands);
+        long last = device.getLastSequenceAcknowledged() != null ? device.getLastSequenceAcknowledged() : -1;
+        List<DeviceData> chunk = new ArrayList<>(streamChunkSize);
+        boolean malformed = false;
+        try {
+            try (DeviceDataRecordReader reader = new DeviceDataRecordReader(jsonFactory, request.getInputStream())) {
+                DeviceDataRecord record;
+                while ((record = reader.next()) != null) {
+                    chunk.add(deviceDataFactory.fromRecord(record));
+                    if (chunk.size() == streamChunkSize) {
+                        last = accept(device, chunk);
+                        chunk = new ArrayList<>(streamChunkSize);
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    last = accept(device, chunk);
+                }
+            } catch (IOException e) {
+                malformed = true;
+                if (!chunk.isEmpty()) {
+                    last = accept(device, chunk);
+                }
+            }
+        } catch (AdmissionRejectedException e) {
+            return ResponseEntity.status(e.getStatusCode())
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                    .body(new DeviceDataAck(last));
+        }
+        if (malformed) {
+            return ResponseEntity.badRequest().body(new DeviceDataAck(last));
+        }
+        return acknowledge(device, last, ackCommands);
+    }
+
+    private ResponseEntity<DeviceDataAck> acknowledge(Device device, long last, List<Long> ackCommands) {
+        if (ingestJournal.isEnabled()) {
+            journalAckBookkeeper.submit(device, ackCommands);
+            return ResponseEntity.ok(new DeviceDataAck(last, journalAckBookkeeper.pending(device, ackCommands)));
+        }
+        deviceCommandService.acknowledge(device, ackCommands);
+        if (device.isUploadRequested()) {
+            deviceService.acknowledgeUpload(device);
+        }
+        deviceCommandService.completeUploads(device);
+        return ResponseEntity.ok(new DeviceDataAck(last, deviceCommandService.pending(device, false)));
+    }
+
+    private ResponseEntity<PendingResponse> respondPending(Device device, boolean requested, boolean acknowledge,
+                                                          List<PendingCommand> commands) {
+        if (requested && acknowledge) {
+            deviceService.acknowledgeUpload(device);
+        }
+        return ResponseEntity.ok(new PendingResponse(requested, device.getLastSequenceAcknowledged(), commands));
+    }
+
+    private long accept(Device device, List<DeviceData> records) {
+        batchSize.record(records.size());
+        try (DeviceAdmission.Permit ignored = deviceAdmission.acquireIngestSlot()) {
+            long started = System.nanoTime();
+            if (ingestJournal.isEnabled()) {
+                long last = ingestJournal.append(device, records);
+                journalLatency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                return last;
+            }
+            long last = dataIngestionService.ingest(device, records).getLastSequence();
+            databaseLatency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return last;
+        }
+    }
+
+    private long requestVersion(Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof DevicePrincipal principal) {
+            return principal.getRequestVersion();
+        }
+        return authentication != null ? pendingRequestWaiters.requestVersion(authentication.getName()) : 0;
     }
 
     private Device resolveDevice(Authentication authentication) {
+        if (authentication != null && authentication.getPrincipal() instanceof DevicePrincipal principal) {
+            return principal.getDevice();
+        }
         if (authentication == null || !(authentication.getPrincipal() instanceof User user)) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Missing device token");
         }
@@ -82,10 +249,4 @@ public class DeviceDataController {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Device not found"));
     }
 
-    private DeviceData toEntity(DeviceDataRecord record) {
-        DeviceData entity = new DeviceData();
-        entity.setSequenceNumber(record.getSequenceNumber());
-        entity.setPayload(record.getPayload());
-        return entity;
-    }
 }
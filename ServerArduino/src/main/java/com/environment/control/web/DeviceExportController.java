@@ -0,0 +1,98 @@
+package com.environment.control.web;
+
+import com.environment.control.device.Device;
+import com.environment.control.device.DeviceService;
+import com.environment.control.export.DeviceDataExporter;
+import com.environment.control.export.ExportFormat;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+public class DeviceExportController {
+
+    private final DeviceService deviceService;
+    private final DeviceDataExporter deviceDataExporter;
+    private final ThreadPoolTaskExecutor exportExecutor;
+    private final long timeoutMs;
+
+    public DeviceExportController(DeviceService deviceService,
+                                  DeviceDataExporter deviceDataExporter,
+                                  @Value("${app.export.max-concurrent:2}") int maxConcurrent,
+                                  @Value("${app.export.timeout-ms:3600000}") long timeoutMs) {
+        this.deviceService = deviceService;
+        this.deviceDataExporter = deviceDataExporter;
+        this.exportExecutor = new ThreadPoolTaskExecutor();
+        this.exportExecutor.setCorePoolSize(Math.max(1, maxConcurrent));
+        this.exportExecutor.setMaxPoolSize(Math.max(1, maxConcurrent));
+        this.exportExecutor.setQueueCapacity(Math.max(1, maxConcurrent));
+        this.exportExecutor.setThreadNamePrefix("export-");
+        this.exportExecutor.setDaemon(true);
+        this.exportExecutor.initialize();
+        this.timeoutMs = timeoutMs;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        exportExecutor.shutdown();
+    }
+
+    @GetMapping("/admin/devices/{deviceId}/export")
+    public WebAsyncTask<Void> device(@PathVariable String deviceId,
+                                     @RequestParam(required = false) Instant from,
+                                     @RequestParam(required = false) Instant to,
+                                     @RequestParam(defaultValue = "csv") String format,
+                                     HttpServletResponse response) {
+        Device device = deviceService.findByDeviceId(deviceId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Device not found"));
+        return respond(List.of(device), deviceId, from, to, format, response);
+    }
+
+    @GetMapping("/admin/export")
+    public WebAsyncTask<Void> fleet(@RequestParam(required = false) Instant from,
+                                    @RequestParam(required = false) Instant to,
+                                    @RequestParam(defaultValue = "csv") String format,
+                                    HttpServletResponse response) {
+        return respond(deviceService.listDevices(), "fleet", from, to, format, response);
+    }
+
+    private WebAsyncTask<Void> respond(List<Device> devices, String name, Instant from, Instant to, String format,
+                                       HttpServletResponse response) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.parse(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown export format " + format);
+        }
+        Instant start = from != null ? from : Instant.EPOCH;
+        Instant end = to != null ? to : Instant.now().plusSeconds(1);
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename(name + "-export." + exportFormat.getExtension())
+                .build();
+        DeviceDataExporter.Slot slot = deviceDataExporter.acquire();
+        response.setContentType(exportFormat.getMediaType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition.toString());
+        WebAsyncTask<Void> task = new WebAsyncTask<>(timeoutMs, exportExecutor, () -> {
+            deviceDataExporter.export(slot, devices, start, end, exportFormat, response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
+        task.onCompletion(() -> {
+            slot.cancel();
+            slot.close();
+        });
+        return task;
+    }
+}
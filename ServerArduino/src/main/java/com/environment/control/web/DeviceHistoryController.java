@@ -0,0 +1,52 @@
+package com.environment.control.web;
+
+import com.environment.control.data.DataIngestionService;
+import com.environment.control.data.HistoryPage;
+import com.environment.control.device.DeviceService;
+import com.environment.control.web.view.HistoryPageView;
+import java.time.Instant;
+import java.util.Map;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/admin/devices/{deviceId}/history")
+public class DeviceHistoryController {
+
+    private final DeviceService deviceService;
+    private final DataIngestionService dataIngestionService;
+
+    public DeviceHistoryController(DeviceService deviceService, DataIngestionService dataIngestionService) {
+        this.deviceService = deviceService;
+        this.dataIngestionService = dataIngestionService;
+    }
+
+    @GetMapping
+    public ResponseEntity<HistoryPageView> history(@PathVariable String deviceId,
+                                                   @RequestParam(required = false) Long after,
+                                                   @RequestParam(required = false) Instant afterTime,
+                                                   @RequestParam(required = false) Instant from,
+                                                   @RequestParam(required = false) Instant to,
+                                                   @RequestParam(defaultValue = "100") int size) {
+        boolean timeOrdered = from != null || to != null;
+        return deviceService.findByDeviceId(deviceId)
+                .map(device -> {
+                    HistoryPage page = timeOrdered
+                            ? dataIngestionService.getPageInRange(device, from, to, afterTime, after, size)
+                            : dataIngestionService.getPage(device, after, size);
+                    return ResponseEntity.ok(new HistoryPageView(page, timeOrdered));
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/count")
+    public ResponseEntity<Map<String, Long>> count(@PathVariable String deviceId) {
+        return deviceService.findByDeviceId(deviceId)
+                .map(device -> ResponseEntity.ok(Map.of("count", dataIngestionService.countData(device))))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
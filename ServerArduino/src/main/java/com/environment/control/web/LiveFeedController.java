@@ -0,0 +1,39 @@
+package com.environment.control.web;
+
+import com.environment.control.device.DeviceService;
+import com.environment.control.live.LiveFeed;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+public class LiveFeedController {
+
+    private final DeviceService deviceService;
+    private final LiveFeed liveFeed;
+
+    public LiveFeedController(DeviceService deviceService, LiveFeed liveFeed) {
+        this.deviceService = deviceService;
+        this.liveFeed = liveFeed;
+    }
+
+    @GetMapping(value = "/admin/devices/{deviceId}/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter deviceFeed(@PathVariable String deviceId,
+                                 @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                                 @RequestParam(value = "lastEventId", required = false) Long lastEventIdParam) {
+        return deviceService.findByDeviceId(deviceId)
+                .map(device -> liveFeed.subscribe(device, lastEventId != null ? lastEventId : lastEventIdParam))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Device not found"));
+    }
+
+    @GetMapping(value = "/admin/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter fleetFeed(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return liveFeed.subscribeFleet(lastEventId);
+    }
+}
@@ -0,0 +1,50 @@
+package com.environment.control.web;
+
+import com.environment.control.admission.AdmissionRejectedException;
+import com.environment.control.admission.DeviceAdmission;
+import com.environment.control.security.DevicePrincipal;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 10)
+public class UploadAdmissionFilter extends OncePerRequestFilter {
+
+    private final DeviceAdmission deviceAdmission;
+
+    public UploadAdmissionFilter(DeviceAdmission deviceAdmission) {
+        this.deviceAdmission = deviceAdmission;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return !"POST".equals(request.getMethod()) || !(path.equals("/api/devices/data") || path.equals("/api/devices/data/stream"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof DevicePrincipal principal) {
+            try {
+                deviceAdmission.admitUpload(principal.getUsername());
+            } catch (AdmissionRejectedException e) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()));
+                response.sendError(e.getStatusCode().value(), e.getReason());
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,30 @@
+package com.environment.control.web.view;
+
+import com.environment.control.data.HistoryPage;
+import java.time.Instant;
+import java.util.List;
+
+public class HistoryPageView {
+
+    private final List<HistoryRecordView> records;
+    private final Long nextAfter;
+    private final Instant nextAfterTime;
+
+    public HistoryPageView(HistoryPage page, boolean timeOrdered) {
+        this.records = page.getRecords().stream().map(HistoryRecordView::new).toList();
+        this.nextAfter = page.getNextAfter();
+        this.nextAfterTime = timeOrdered ? page.getNextAfterTime() : null;
+    }
+
+    public List<HistoryRecordView> getRecords() {
+        return records;
+    }
+
+    public Long getNextAfter() {
+        return nextAfter;
+    }
+
+    public Instant getNextAfterTime() {
+        return nextAfterTime;
+    }
+}
@@ -0,0 +1,53 @@
+package com.environment.control.web.view;
+
+import com.environment.control.data.DeviceData;
+import java.time.Instant;
+
+public class HistoryRecordView {
+
+    private final long sequenceNumber;
+    private final Instant createdAt;
+    private final Instant recordedAt;
+    private final Float mq135;
+    private final Float temperature;
+    private final Float humidity;
+    private final Float distance;
+
+    public HistoryRecordView(DeviceData data) {
+        this.sequenceNumber = data.getSequenceNumber();
+        this.createdAt = data.getCreatedAt();
+        this.recordedAt = data.getRecordedAt();
+        this.mq135 = data.getMq135();
+        this.temperature = data.getTemperature();
+        this.humidity = data.getHumidity();
+        this.distance = data.getDistance();
+    }
+
+    public long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getRecordedAt() {
+        return recordedAt;
+    }
+
+    public Float getMq135() {
+        return mq135;
+    }
+
+    public Float getTemperature() {
+        return temperature;
+    }
+
+    public Float getHumidity() {
+        return humidity;
+    }
+
+    public Float getDistance() {
+        return distance;
+    }
+}
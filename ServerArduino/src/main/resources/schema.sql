@@ -0,0 +1,4 @@
+ALTER TABLE device_data ALTER COLUMN payload DROP NOT NULL;
+ALTER TABLE devices ADD COLUMN IF NOT EXISTS stored_rows bigint;
+CREATE TABLE IF NOT EXISTS backfill_progress (job varchar(64) PRIMARY KEY, last_id bigint NOT NULL, completed boolean NOT NULL);
+CREATE TABLE IF NOT EXISTS partition_drops (relname varchar(63) PRIMARY KEY);
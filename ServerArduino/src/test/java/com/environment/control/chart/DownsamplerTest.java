@@ -0,0 +1,130 @@
+package com.environment.control.chart;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class DownsamplerTest {
+
+    private static final long FROM = 1_700_000_000_000L;
+    private static final long TO = FROM + 86_400_000L;
+
+    @Test
+    void lttbStaysWithinWidthPlusEndpoints() {
+        for (int width : new int[] {1, 2, 16, 500}) {
+            ChartSeries series = feed(Downsampler.create(DownsampleMode.LTTB, FROM, TO, width), 20_000, 3);
+
+            assertTrue(series.getTimestamps().length <= width + 2, "width " + width + " gave " + series.getTimestamps().length);
+            assertAscending(series);
+        }
+    }
+
+    @Test
+    void lttbKeepsFirstAndLastPoint() {
+        Downsampler downsampler = Downsampler.create(DownsampleMode.LTTB, FROM, TO, 50);
+        ChartSeries series = feed(downsampler, 10_000, 5);
+        long[] timestamps = series.getTimestamps();
+
+        assertEquals(FROM, timestamps[0]);
+        assertEquals(TO - 1, timestamps[timestamps.length - 1]);
+    }
+
+    @Test
+    void lttbKeepsSparseInputUnchanged() {
+        Downsampler downsampler = Downsampler.create(DownsampleMode.LTTB, FROM, TO, 100);
+        long[] timestamps = new long[10];
+        float[] values = new float[10];
+        for (int i = 0; i < 10; i++) {
+            timestamps[i] = FROM + i * (TO - FROM) / 10;
+            values[i] = i * i;
+            downsampler.add(timestamps[i], values[i]);
+        }
+
+        ChartSeries series = downsampler.finish();
+
+        assertArrayEquals(timestamps, series.getTimestamps());
+        assertArrayEquals(values, series.getValues());
+    }
+
+    @Test
+    void lttbKeepsAnIsolatedSpike() {
+        Downsampler downsampler = Downsampler.create(DownsampleMode.LTTB, FROM, TO, 20);
+        long spikeAt = FROM + (TO - FROM) / 2 + 17;
+        for (long t = FROM; t < TO; t += 60_000) {
+            downsampler.add(t, 20f);
+            if (t < spikeAt && spikeAt < t + 60_000) {
+                downsampler.add(spikeAt, 95f);
+            }
+        }
+
+        ChartSeries series = downsampler.finish();
+
+        assertTrue(contains(series, spikeAt, 95f));
+    }
+
+    @Test
+    void minMaxStaysWithinWidth() {
+        for (int width : new int[] {2, 3, 16, 500}) {
+            ChartSeries series = feed(Downsampler.create(DownsampleMode.MINMAX, FROM, TO, width), 20_000, 7);
+
+            assertTrue(series.getTimestamps().length <= Math.max(2, width), "width " + width + " gave " + series.getTimestamps().length);
+            assertAscending(series);
+        }
+    }
+
+    @Test
+    void minMaxKeepsBucketExtremesInTimeOrder() {
+        Downsampler downsampler = Downsampler.create(DownsampleMode.MINMAX, FROM, TO, 2);
+        downsampler.add(FROM + 1, 5f);
+        downsampler.add(FROM + 2, 9f);
+        downsampler.add(FROM + 3, -1f);
+        downsampler.add(FROM + 4, 4f);
+
+        ChartSeries series = downsampler.finish();
+
+        assertArrayEquals(new long[] {FROM + 2, FROM + 3}, series.getTimestamps());
+        assertArrayEquals(new float[] {9f, -1f}, series.getValues());
+    }
+
+    @Test
+    void minMaxEmitsFlatBucketOnce() {
+        Downsampler downsampler = Downsampler.create(DownsampleMode.MINMAX, FROM, TO, 2);
+        downsampler.add(FROM + 1, 3f);
+
+        assertEquals(1, downsampler.finish().getTimestamps().length);
+    }
+
+    @Test
+    void emptyInputGivesEmptySeries() {
+        assertEquals(0, Downsampler.create(DownsampleMode.LTTB, FROM, TO, 10).finish().getTimestamps().length);
+        assertEquals(0, Downsampler.create(DownsampleMode.MINMAX, FROM, TO, 10).finish().getTimestamps().length);
+    }
+
+    private static ChartSeries feed(Downsampler downsampler, int points, long seed) {
+        Random random = new Random(seed);
+        for (int i = 0; i < points; i++) {
+            long timestamp = FROM + (long) i * (TO - FROM - 1) / (points - 1);
+            downsampler.add(timestamp, (float) (Math.sin(i / 200.0) * 30 + random.nextGaussian()));
+        }
+        return downsampler.finish();
+    }
+
+    private static void assertAscending(ChartSeries series) {
+        long[] timestamps = series.getTimestamps();
+        for (int i = 1; i < timestamps.length; i++) {
+            assertTrue(timestamps[i - 1] <= timestamps[i], "timestamps out of order at " + i);
+        }
+    }
+
+    private static boolean contains(ChartSeries series, long timestamp, float value) {
+        for (int i = 0; i < series.getTimestamps().length; i++) {
+            if (series.getTimestamps()[i] == timestamp && series.getValues()[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,62 @@
+package com.environment.control.cold;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class BitStreamTest {
+
+    @Test
+    void readsBackMixedWidthFields() {
+        BitWriter writer = new BitWriter(1);
+        writer.writeBit(true);
+        writer.writeBits(0b101, 3);
+        writer.writeBits(-1L, 64);
+        writer.writeBit(false);
+        writer.writeBits(0x1234_5678L, 32);
+
+        BitReader reader = new BitReader(writer.toByteArray());
+        assertTrue(reader.readBit());
+        assertEquals(0b101, reader.readBits(3));
+        assertEquals(-1L, reader.readBits(64));
+        assertFalse(reader.readBit());
+        assertEquals(0x1234_5678L, reader.readBits(32));
+    }
+
+    @Test
+    void writesOnlyTheLowBitsOfValue() {
+        BitWriter writer = new BitWriter(1);
+        writer.writeBits(0xFFL, 4);
+
+        assertArrayEquals(new byte[] {(byte) 0xF0}, writer.toByteArray());
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        BitWriter writer = new BitWriter(1);
+        for (int i = 0; i < 100; i++) {
+            writer.writeBits(i, 16);
+        }
+
+        byte[] bytes = writer.toByteArray();
+        assertEquals(200, bytes.length);
+        BitReader reader = new BitReader(bytes);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, reader.readBits(16));
+        }
+    }
+
+    @Test
+    void rejectsReadsPastTheEnd() {
+        BitWriter writer = new BitWriter(1);
+        writer.writeBits(0b1, 1);
+        BitReader reader = new BitReader(writer.toByteArray());
+        reader.readBits(8);
+
+        assertThrows(IllegalArgumentException.class, reader::readBit);
+    }
+}
@@ -0,0 +1,100 @@
+package com.environment.control.cold;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class BlockCodecTest {
+
+    @Test
+    void roundTripsEmptyBlock() {
+        ColdBlock decoded = BlockCodec.decode(BlockCodec.encode(new ColdBlock(0)));
+
+        assertEquals(0, decoded.size());
+    }
+
+    @Test
+    void roundTripsSingleRow() {
+        ColdBlock block = new ColdBlock(1);
+        block.set(0, 42, 1_700_000_000_000L, ColdBlock.NO_TIME, 1.5f, Float.NaN, 40f, -0.0f);
+
+        assertBlocksEqual(block, BlockCodec.decode(BlockCodec.encode(block)));
+    }
+
+    @Test
+    void roundTripsRegularSeries() {
+        ColdBlock block = new ColdBlock(500);
+        for (int i = 0; i < 500; i++) {
+            block.set(i, 1000 + i, 1_700_000_000_000L + i * 60_000L, 1_700_000_000_000L + i * 60_000L - 5_000,
+                    400f, 21.5f + (i % 3) * 0.1f, 45f, 120f);
+        }
+
+        byte[] encoded = BlockCodec.encode(block);
+
+        assertBlocksEqual(block, BlockCodec.decode(encoded));
+        assertTrue(encoded.length < 500 * 8, "regular series should compress below one long per row");
+    }
+
+    @Test
+    void roundTripsIrregularValues() {
+        Random random = new Random(7);
+        int rows = 1000;
+        ColdBlock block = new ColdBlock(rows);
+        long sequence = -5;
+        long createdAt = 0;
+        for (int i = 0; i < rows; i++) {
+            sequence += switch (i % 4) {
+                case 0 -> 1;
+                case 1 -> 1 + random.nextInt(100);
+                case 2 -> 1L << 40;
+                default -> -(1L << 30);
+            };
+            createdAt += random.nextInt(3) == 0 ? -random.nextInt(1_000_000) : random.nextInt(Integer.MAX_VALUE);
+            long recordedAt = i % 5 == 0 ? ColdBlock.NO_TIME : createdAt - random.nextInt(10_000_000);
+            block.set(i, sequence, createdAt, recordedAt,
+                    i % 7 == 0 ? Float.NaN : random.nextFloat() * 1000,
+                    i % 11 == 0 ? Float.POSITIVE_INFINITY : (float) random.nextGaussian(),
+                    Float.intBitsToFloat(random.nextInt()),
+                    i % 2 == 0 ? Float.MIN_VALUE : -Float.MAX_VALUE);
+        }
+
+        assertBlocksEqual(block, BlockCodec.decode(BlockCodec.encode(block)));
+    }
+
+    @Test
+    void rejectsUnknownVersion() {
+        byte[] encoded = BlockCodec.encode(new ColdBlock(0));
+        encoded[0] = 2;
+
+        assertThrows(IllegalArgumentException.class, () -> BlockCodec.decode(encoded));
+    }
+
+    @Test
+    void rejectsTruncatedBlock() {
+        ColdBlock block = new ColdBlock(10);
+        for (int i = 0; i < 10; i++) {
+            block.set(i, i, i * 1000L, ColdBlock.NO_TIME, i, i, i, i);
+        }
+        byte[] encoded = BlockCodec.encode(block);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> BlockCodec.decode(Arrays.copyOf(encoded, encoded.length - 2)));
+    }
+
+    private static void assertBlocksEqual(ColdBlock expected, ColdBlock actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int row = 0; row < expected.size(); row++) {
+            assertEquals(expected.sequence(row), actual.sequence(row), "sequence at " + row);
+            assertEquals(expected.createdAt(row), actual.createdAt(row), "createdAt at " + row);
+            assertEquals(expected.recordedAt(row), actual.recordedAt(row), "recordedAt at " + row);
+            assertEquals(expected.mq135(row), actual.mq135(row), "mq135 at " + row);
+            assertEquals(expected.temperature(row), actual.temperature(row), "temperature at " + row);
+            assertEquals(expected.humidity(row), actual.humidity(row), "humidity at " + row);
+            assertEquals(expected.distance(row), actual.distance(row), "distance at " + row);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.environment.control.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class BinaryBatchDecoderTest {
+
+    @Test
+    void decodesRecordsWithDeltaSequences() throws IOException {
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        batch.write(1);
+        writeVarLong(batch, zigZag(100));
+        batch.write(1 | 2 | 4 | 8 | 16);
+        writeFloat(batch, 400f);
+        writeFloat(batch, 21.5f);
+        writeFloat(batch, 45f);
+        writeFloat(batch, 120f);
+        writeVarLong(batch, 1_700_000_000L);
+        writeVarLong(batch, zigZag(1));
+        batch.write(2);
+        writeFloat(batch, Float.NaN);
+        writeVarLong(batch, zigZag(-50));
+        batch.write(0);
+
+        List<DeviceData> records = decode(batch.toByteArray());
+
+        assertEquals(3, records.size());
+        DeviceData first = records.get(0);
+        assertEquals(100L, first.getSequenceNumber());
+        assertEquals(400f, first.getMq135());
+        assertEquals(21.5f, first.getTemperature());
+        assertEquals(45f, first.getHumidity());
+        assertEquals(120f, first.getDistance());
+        assertEquals(Instant.ofEpochSecond(1_700_000_000L), first.getRecordedAt());
+        assertEquals(101L, records.get(1).getSequenceNumber());
+        assertNull(records.get(1).getTemperature());
+        assertNull(records.get(1).getMq135());
+        assertEquals(51L, records.get(2).getSequenceNumber());
+        assertNull(records.get(2).getRecordedAt());
+    }
+
+    @Test
+    void decodesEmptyBatch() throws IOException {
+        assertTrue(decode(new byte[] {1}).isEmpty());
+    }
+
+    @Test
+    void rejectsUnsupportedVersion() {
+        assertThrows(IllegalArgumentException.class, () -> decode(new byte[] {2}));
+        assertThrows(IllegalArgumentException.class, () -> decode(new byte[0]));
+    }
+
+    @Test
+    void rejectsUnknownFieldFlags() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> decode(new byte[] {1, 2, 0x20}));
+
+        assertTrue(error.getMessage().contains("offset 2"), error.getMessage());
+    }
+
+    @Test
+    void rejectsTruncatedRecords() throws IOException {
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        batch.write(1);
+        writeVarLong(batch, zigZag(300));
+        batch.write(1 | 16);
+        writeFloat(batch, 1f);
+        writeVarLong(batch, 1_700_000_000L);
+        byte[] complete = batch.toByteArray();
+
+        assertEquals(1, decode(complete).size());
+        for (int length = 2; length < complete.length; length++) {
+            byte[] truncated = Arrays.copyOf(complete, length);
+            assertThrows(IllegalArgumentException.class, () -> decode(truncated), "length " + length);
+        }
+    }
+
+    @Test
+    void rejectsOverlongVarint() {
+        byte[] batch = new byte[12];
+        batch[0] = 1;
+        Arrays.fill(batch, 1, batch.length, (byte) 0x80);
+
+        assertThrows(IllegalArgumentException.class, () -> decode(batch));
+    }
+
+    private static List<DeviceData> decode(byte[] batch) throws IOException {
+        return BinaryBatchDecoder.decode(new ByteArrayInputStream(batch));
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static void writeFloat(ByteArrayOutputStream out, float value) {
+        int bits = Float.floatToRawIntBits(value);
+        for (int shift = 0; shift < Integer.SIZE; shift += 8) {
+            out.write(bits >>> shift);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.environment.control.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+class SensorPayloadParserTest {
+
+    private final SensorPayloadParser parser = new SensorPayloadParser(new ObjectMapper());
+
+    @Test
+    void parsesKeyValuePayload() {
+        DeviceData data = new DeviceData();
+
+        assertTrue(parser.parseInto("mq135=1.23,tempC=23.4,humidity=44.0,distanceCm=123.0", data));
+        assertEquals(1.23f, data.getMq135());
+        assertEquals(23.4f, data.getTemperature());
+        assertEquals(44.0f, data.getHumidity());
+        assertEquals(123.0f, data.getDistance());
+    }
+
+    @Test
+    void acceptsAliasesSeparatorsAndWhitespace() {
+        DeviceData data = new DeviceData();
+
+        assertTrue(parser.parseInto("  TEMP = -4.5 ; hum=6e1&distance=+12\nts=1700000000", data));
+        assertEquals(-4.5f, data.getTemperature());
+        assertEquals(60f, data.getHumidity());
+        assertEquals(12f, data.getDistance());
+        assertEquals(Instant.ofEpochSecond(1_700_000_000L), data.getRecordedAt());
+    }
+
+    @Test
+    void skipsUnknownKeysAndBadNumbers() {
+        DeviceData data = new DeviceData();
+
+        assertTrue(parser.parseInto("firmware=1.2.3,mq135=abc,flag,humidity=50", data));
+        assertNull(data.getMq135());
+        assertEquals(50f, data.getHumidity());
+    }
+
+    @Test
+    void rejectsPayloadWithoutReadings() {
+        assertFalse(parser.parseInto(null, new DeviceData()));
+        assertFalse(parser.parseInto("", new DeviceData()));
+        assertFalse(parser.parseInto("hello world", new DeviceData()));
+        assertFalse(parser.parseInto("temp=NaN,humidity=", new DeviceData()));
+    }
+
+    @Test
+    void parsesJsonPayload() {
+        DeviceData data = new DeviceData();
+
+        assertTrue(parser.parseInto("{\"mq135\": 400, \"temperature\": 21.25, \"humidity\": \"45.5\","
+                + " \"meta\": {\"distance\": 9}, \"tags\": [1, 2], \"timestamp\": 1700000000123}", data));
+        assertEquals(400f, data.getMq135());
+        assertEquals(21.25f, data.getTemperature());
+        assertEquals(45.5f, data.getHumidity());
+        assertNull(data.getDistance());
+        assertEquals(Instant.ofEpochMilli(1_700_000_000_123L), data.getRecordedAt());
+    }
+
+    @Test
+    void keepsReadingsParsedBeforeMalformedJson() {
+        DeviceData data = new DeviceData();
+
+        assertTrue(parser.parseInto("{\"temp\": 19.5, \"hum\": ", data));
+        assertEquals(19.5f, data.getTemperature());
+        assertFalse(parser.parseInto("{\"temp\": ", new DeviceData()));
+        assertFalse(parser.parseInto("{\"temp\": null, \"hum\": true}", new DeviceData()));
+    }
+
+    @Test
+    void parsesNumbersLikeDoubleParseDouble() {
+        for (String text : new String[] {"0", "-0.5", "123.456", "1e3", "2.5E-2", "+7", "12345678901234567890"}) {
+            assertEquals(Double.parseDouble(text), SensorPayloadParser.parseNumber(text, 0, text.length()), 1e-9 * Math.abs(Double.parseDouble(text)));
+        }
+        assertTrue(Double.isNaN(SensorPayloadParser.parseNumber("1.2.3", 0, 5)));
+        assertTrue(Double.isNaN(SensorPayloadParser.parseNumber("-", 0, 1)));
+        assertTrue(Double.isNaN(SensorPayloadParser.parseNumber("12x", 0, 3)));
+    }
+}
@@ -0,0 +1,95 @@
+package com.environment.control.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class SequenceWindowTest {
+
+    @Test
+    void emptyWindowContainsNothing() {
+        SequenceWindow window = new SequenceWindow(64);
+
+        assertFalse(window.contains(0));
+        assertFalse(window.contains(Long.MIN_VALUE + 1));
+        assertEquals(Long.MIN_VALUE, window.highWater());
+    }
+
+    @Test
+    void remembersSequencesAddedOutOfOrder() {
+        SequenceWindow window = new SequenceWindow(64);
+        window.add(10);
+        window.add(5);
+        window.add(12);
+
+        assertTrue(window.contains(5));
+        assertTrue(window.contains(10));
+        assertTrue(window.contains(12));
+        assertFalse(window.contains(11));
+        assertFalse(window.contains(13));
+        assertEquals(12, window.highWater());
+    }
+
+    @Test
+    void advancingClearsSlotsReusedByNewSequences() {
+        SequenceWindow window = new SequenceWindow(64);
+        window.add(1);
+        window.add(2);
+        window.add(66);
+
+        assertFalse(window.contains(1));
+        assertFalse(window.contains(2));
+        assertTrue(window.contains(66));
+        assertFalse(window.contains(65));
+    }
+
+    @Test
+    void keepsSequencesStillInsideTheWindow() {
+        SequenceWindow window = new SequenceWindow(128);
+        window.add(100);
+        window.add(227);
+
+        assertTrue(window.contains(100));
+        assertTrue(window.contains(227));
+        window.add(228);
+        assertFalse(window.contains(100));
+    }
+
+    @Test
+    void ignoresSequencesOlderThanTheWindow() {
+        SequenceWindow window = new SequenceWindow(64);
+        window.add(200);
+        window.add(136);
+
+        assertFalse(window.contains(136));
+        assertFalse(window.contains(200 - 64 * 2));
+        assertEquals(200, window.highWater());
+    }
+
+    @Test
+    void jumpPastTheWindowForgetsEverything() {
+        SequenceWindow window = new SequenceWindow(64);
+        for (long sequence = 0; sequence < 64; sequence++) {
+            window.add(sequence);
+        }
+        window.add(1000);
+
+        for (long sequence = 1000 - 63; sequence < 1000; sequence++) {
+            assertFalse(window.contains(sequence), "sequence " + sequence);
+        }
+        assertTrue(window.contains(1000));
+    }
+
+    @Test
+    void handlesNegativeSequences() {
+        SequenceWindow window = new SequenceWindow(64);
+        window.add(-3);
+        window.add(-1);
+
+        assertTrue(window.contains(-3));
+        assertFalse(window.contains(-2));
+        assertTrue(window.contains(-1));
+    }
+}
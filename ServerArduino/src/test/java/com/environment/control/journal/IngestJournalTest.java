@@ -0,0 +1,129 @@
+package com.environment.control.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.environment.control.data.DeviceData;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IngestJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackEncodedEntries() throws IOException {
+        Path segment = write(entry(7, 1, 2), entry(8, 10));
+        List<JournalEntry> entries = new ArrayList<>();
+
+        assertTrue(journal().read(segment, entries::add));
+
+        assertEquals(2, entries.size());
+        assertEquals(7, entries.get(0).getDevicePk());
+        assertEquals(8, entries.get(1).getDevicePk());
+        List<DeviceData> records = entries.get(0).getRecords();
+        assertEquals(2, records.size());
+        DeviceData first = records.get(0);
+        assertEquals(1L, first.getSequenceNumber());
+        assertEquals(Instant.ofEpochMilli(1_700_000_001_000L), first.getCreatedAt());
+        assertEquals(Instant.ofEpochMilli(1_700_000_000_001L), first.getRecordedAt());
+        assertEquals(1.5f, first.getTemperature());
+        assertNull(first.getMq135());
+        assertEquals("temp=1.5", first.getPayload());
+        DeviceData second = records.get(1);
+        assertNull(second.getRecordedAt());
+        assertNull(second.getPayload());
+    }
+
+    @Test
+    void readsEmptySegment() throws IOException {
+        Path segment = write();
+
+        assertTrue(journal().read(segment, entry -> { }));
+    }
+
+    @Test
+    void stopsAtTornTailAndReportsIt() throws IOException {
+        Path segment = write(entry(7, 1), entry(7, 2), entry(7, 3));
+        long size = Files.size(segment);
+        for (long cut = 1; cut < size / 3; cut++) {
+            Path torn = directory.resolve("torn-" + cut + ".log");
+            Files.copy(segment, torn);
+            try (FileChannel channel = FileChannel.open(torn, StandardOpenOption.WRITE)) {
+                channel.truncate(size - cut);
+            }
+            List<JournalEntry> entries = new ArrayList<>();
+
+            assertFalse(journal().read(torn, entries::add), "cut " + cut);
+            assertEquals(2, entries.size(), "cut " + cut);
+        }
+    }
+
+    @Test
+    void stopsAtChecksumMismatch() throws IOException {
+        ByteBuffer corrupt = entry(7, 2);
+        corrupt.put(corrupt.limit() - 1, (byte) (corrupt.get(corrupt.limit() - 1) ^ 1));
+        Path segment = write(entry(7, 1), corrupt, entry(7, 3));
+        List<JournalEntry> entries = new ArrayList<>();
+
+        assertFalse(journal().read(segment, entries::add));
+
+        assertEquals(1, entries.size());
+        assertEquals(1L, entries.get(0).getRecords().get(0).getSequenceNumber());
+    }
+
+    @Test
+    void quarantinedSegmentKeepsItsBytes() throws IOException {
+        Path segment = write(entry(7, 1));
+        byte[] bytes = Files.readAllBytes(segment);
+
+        Path quarantined = journal().quarantine(segment);
+
+        assertFalse(Files.exists(segment));
+        assertTrue(quarantined.getFileName().toString().endsWith(".log.corrupt"));
+        assertEquals(ByteBuffer.wrap(bytes), ByteBuffer.wrap(Files.readAllBytes(quarantined)));
+    }
+
+    private IngestJournal journal() {
+        return new IngestJournal(null, null, false, directory.toString(), 1 << 20);
+    }
+
+    private Path write(ByteBuffer... entries) throws IOException {
+        Path segment = Files.createTempFile(directory, "segment-", ".log");
+        try (OutputStream out = Files.newOutputStream(segment)) {
+            for (ByteBuffer entry : entries) {
+                out.write(entry.array(), 0, entry.limit());
+            }
+        }
+        return segment;
+    }
+
+    private static ByteBuffer entry(long devicePk, long... sequences) {
+        List<DeviceData> records = new ArrayList<>();
+        for (int i = 0; i < sequences.length; i++) {
+            DeviceData data = new DeviceData();
+            data.setSequenceNumber(sequences[i]);
+            data.setCreatedAt(Instant.ofEpochMilli(1_700_000_000_000L + sequences[i] * 1000));
+            if (i == 0) {
+                data.setRecordedAt(Instant.ofEpochMilli(1_700_000_000_000L + sequences[i]));
+                data.setPayload("temp=1.5");
+            }
+            data.setTemperature(1.5f);
+            records.add(data);
+        }
+        return IngestJournal.encode(devicePk, records);
+    }
+}